@@ -2,6 +2,7 @@ package com.project.demo.logic.entity.auth;
 
 import com.project.demo.logic.entity.user.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,19 +19,26 @@ public class ApplicationConfiguration {
     @Autowired
     private final UserRepository userRepository;
 
-    public ApplicationConfiguration(UserRepository userRepository) {
+    private final UserPrincipalCache userPrincipalCache;
+
+    // Raising the strength makes existing hashes get re-encoded on the user's next successful login
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    public ApplicationConfiguration(UserRepository userRepository, UserPrincipalCache userPrincipalCache) {
         this.userRepository = userRepository;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
     @Bean
     UserDetailsService userDetailsService() {
-        return username -> userRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return username -> userPrincipalCache.get(username, email -> userRepository.findPrincipalByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found")));
     }
 
     @Bean
     BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -2,39 +2,66 @@ package com.project.demo.logic.entity.auth;
 
 import com.project.demo.logic.entity.user.User;
 import com.project.demo.logic.entity.user.UserRepository;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 public class AuthenticationService {
     private final UserRepository userRepository;
 
     private final PasswordEncoder passwordEncoder;
 
-    private final AuthenticationManager authenticationManager;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    private final UserPrincipalCache userPrincipalCache;
+
+    // Compared against when the email is unknown, so a missing user costs the same bcrypt work as a wrong password
+    private volatile String userNotFoundPassword;
 
     public AuthenticationService(
             UserRepository userRepository,
-            AuthenticationManager authenticationManager,
-            PasswordEncoder passwordEncoder
+            PasswordEncoder passwordEncoder,
+            PasswordHashingExecutor passwordHashingExecutor,
+            UserPrincipalCache userPrincipalCache
     ) {
-        this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
 
     public User authenticate(User input) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        input.getEmail(),
-                        input.getPassword()
-                )
-        );
-
-        return userRepository.findByEmail(input.getEmail())
-                .orElseThrow();
+        if (input.getEmail() == null || input.getPassword() == null) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+
+        Optional<User> foundUser = userRepository.findByEmail(input.getEmail());
+        String encodedPassword = foundUser.map(User::getPassword).orElseGet(this::getUserNotFoundPassword);
+
+        boolean matches = passwordHashingExecutor.execute(() -> passwordEncoder.matches(input.getPassword(), encodedPassword));
+        if (foundUser.isEmpty() || !matches) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+
+        User user = foundUser.get();
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            String upgradedPassword = passwordHashingExecutor.execute(() -> passwordEncoder.encode(input.getPassword()));
+            userRepository.updatePassword(user.getId(), upgradedPassword);
+            userPrincipalCache.evict(user.getEmail());
+            user.setPassword(upgradedPassword);
+        }
+
+        return user;
+    }
+
+    private String getUserNotFoundPassword() {
+        if (userNotFoundPassword == null) {
+            userNotFoundPassword = passwordEncoder.encode("userNotFoundPassword");
+        }
+        return userNotFoundPassword;
     }
 }
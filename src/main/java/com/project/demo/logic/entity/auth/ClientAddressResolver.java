@@ -0,0 +1,36 @@
+package com.project.demo.logic.entity.auth;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the address of the client behind the reverse proxies the app is deployed behind. Each trusted
+ * proxy appends the address it received the request from to {@code X-Forwarded-For}, so the client is the
+ * entry that many hops from the right; anything further left was sent by the client and cannot be trusted.
+ * With no trusted hops, or a header too short to hold them, the socket's peer address is used.
+ */
+@Component
+public class ClientAddressResolver {
+    static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private final int trustedHops;
+
+    public ClientAddressResolver(@Value("${security.forwarded.trusted-hops:0}") int trustedHops) {
+        this.trustedHops = trustedHops;
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String forwardedFor = request.getHeader(FORWARDED_FOR);
+        if (trustedHops <= 0 || forwardedFor == null || forwardedFor.isBlank()) {
+            return request.getRemoteAddr();
+        }
+
+        String[] hops = forwardedFor.split(",");
+        if (hops.length < trustedHops) {
+            return request.getRemoteAddr();
+        }
+        String client = hops[hops.length - trustedHops].trim();
+        return client.isEmpty() ? request.getRemoteAddr() : client;
+    }
+}
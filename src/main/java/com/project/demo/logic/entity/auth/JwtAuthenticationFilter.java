@@ -1,9 +1,11 @@
 package com.project.demo.logic.entity.auth;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -16,6 +18,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import java.io.IOException;
+import java.util.function.Function;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -23,14 +26,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+
+    // When enabled, the principal is built from the token's id/role claims instead of a database lookup
+    @Value("${security.jwt.stateless:false}")
+    private boolean statelessAuthentication;
 
     public JwtAuthenticationFilter(
             JwtService jwtService,
             UserDetailsService userDetailsService,
+            TokenRevocationService tokenRevocationService,
             HandlerExceptionResolver handlerExceptionResolver
     ) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
         this.handlerExceptionResolver = handlerExceptionResolver;
     }
 
@@ -49,14 +59,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             final String jwt = authHeader.substring(7);
-            final String userEmail = jwtService.extractUsername(jwt);
+            final Claims claims = jwtService.extractClaim(jwt, Function.identity());
+            final String userEmail = claims.getSubject();
 
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-            if (userEmail != null && authentication == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            if (userEmail != null && authentication == null && !tokenRevocationService.isRevoked(claims)) {
+                UserDetails userDetails = statelessAuthentication ? UserPrincipal.fromClaims(claims) : null;
+
+                if (userDetails == null) {
+                    userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                }
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (jwtService.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -1,14 +1,26 @@
 package com.project.demo.logic.entity.auth;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.project.demo.logic.entity.user.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -23,6 +35,50 @@ public class JwtService {
     @Value("${security.jwt.expiration-time}")
     private long jwtExpiration;
 
+    @Value("${security.jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private Key signInKey;
+
+    private JwtParser jwtParser;
+
+    // Verified claims keyed by the SHA-256 digest of the token, each entry living until the token's exp
+    private Cache<String, Claims> verifiedClaims;
+
+    public JwtService(TokenRevocationService tokenRevocationService) {
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        jwtParser = Jwts
+                .parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        return remainingLifetime(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return remainingLifetime(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -33,7 +89,17 @@ public class JwtService {
     }
 
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        UserPrincipal principal = userDetails instanceof User user ? UserPrincipal.from(user)
+                : userDetails instanceof UserPrincipal userPrincipal ? userPrincipal : null;
+
+        if (principal != null) {
+            claims.put(UserPrincipal.USER_ID_CLAIM, principal.getId());
+            claims.put(UserPrincipal.ROLE_CLAIM, principal.getRole().toString());
+            claims.put(TokenRevocationService.TOKEN_VERSION_CLAIM, tokenRevocationService.currentVersion(principal.getId()));
+        }
+
+        return generateToken(claims, userDetails);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
@@ -53,36 +119,51 @@ public class JwtService {
                 .builder()
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /** Checks claims the caller already extracted, without digesting the token again for the cache lookup. */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return (claims.getSubject().equals(userDetails.getUsername())) && !isTokenExpired(claims);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        final String digest = digest(token);
+        Claims claims = verifiedClaims.getIfPresent(digest);
+
+        if (claims == null) {
+            claims = jwtParser
+                    .parseClaimsJws(token)
+                    .getBody();
+            verifiedClaims.put(digest, claims);
+        }
+
+        return claims;
+    }
+
+    private static long remainingLifetime(Claims claims) {
+        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
@@ -0,0 +1,105 @@
+package com.project.demo.logic.entity.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.demo.logic.entity.metrics.MetricsSource;
+import com.project.demo.logic.exceptions.LoginThrottledException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token-bucket limiter for login attempts, keyed by email and by client IP. It runs before any
+ * password hashing, so throttled attempts cost no bcrypt work.
+ */
+@Component
+public class LoginRateLimiter implements MetricsSource {
+    private final Limiter emailLimiter;
+    private final Limiter ipLimiter;
+
+    public LoginRateLimiter(
+            @Value("${security.login.rate-limit.email.capacity:5}") int emailCapacity,
+            @Value("${security.login.rate-limit.email.per-minute:10}") int emailPerMinute,
+            @Value("${security.login.rate-limit.ip.capacity:20}") int ipCapacity,
+            @Value("${security.login.rate-limit.ip.per-minute:60}") int ipPerMinute,
+            @Value("${security.login.rate-limit.max-keys:100000}") long maxKeys
+    ) {
+        this.emailLimiter = new Limiter(emailCapacity, emailPerMinute, maxKeys);
+        this.ipLimiter = new Limiter(ipCapacity, ipPerMinute, maxKeys);
+    }
+
+    public void check(String email, String clientIp) {
+        // The IP is checked first and a rejected IP never touches the email bucket, so a throttled
+        // client cannot drain the bucket of someone else's account and lock its owner out
+        if (!ipLimiter.tryAcquire(clientIp == null ? "" : clientIp)) {
+            throw new LoginThrottledException("Too many login attempts");
+        }
+
+        String emailKey = email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+        if (!emailLimiter.tryAcquire(emailKey)) {
+            throw new LoginThrottledException("Too many login attempts");
+        }
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "loginRateLimiter";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("emailBuckets", emailLimiter.buckets.estimatedSize());
+        metrics.put("emailRejected", emailLimiter.rejected.sum());
+        metrics.put("ipBuckets", ipLimiter.buckets.estimatedSize());
+        metrics.put("ipRejected", ipLimiter.rejected.sum());
+        return metrics;
+    }
+
+    /**
+     * Each bucket is a single theoretical-arrival-time stored in an AtomicLong (GCRA), so acquiring
+     * is one CAS and never blocks. A bucket idle for longer than its full refill time is back at
+     * full capacity, which is exactly when the cache evicts it.
+     */
+    private static final class Limiter {
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+        private final Cache<String, AtomicLong> buckets;
+        private final LongAdder rejected = new LongAdder();
+
+        private Limiter(int capacity, int perMinute, long maxKeys) {
+            this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+            this.burstToleranceNanos = emissionIntervalNanos * capacity;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(Duration.ofNanos(burstToleranceNanos))
+                    .build();
+        }
+
+        private boolean tryAcquire(String key) {
+            AtomicLong theoreticalArrival = buckets.get(key, ignored -> new AtomicLong(Long.MIN_VALUE));
+            long now = System.nanoTime();
+
+            while (true) {
+                long current = theoreticalArrival.get();
+                long start = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+                long next = start + emissionIntervalNanos;
+
+                if (next - now > burstToleranceNanos) {
+                    rejected.increment();
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
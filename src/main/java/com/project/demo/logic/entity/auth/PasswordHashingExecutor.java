@@ -0,0 +1,90 @@
+package com.project.demo.logic.entity.auth;
+
+import com.project.demo.logic.entity.metrics.MetricsSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool, sized to the CPU cores, that runs bcrypt work off the Tomcat worker threads.
+ * When the queue is full the task is rejected straight away with a {@link RejectedExecutionException}.
+ */
+@Component
+public class PasswordHashingExecutor implements MetricsSource {
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHashingExecutor(@Value("${security.password.hashing.queue-capacity:64}") int queueCapacity) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("Password hashing pool is saturated");
+                }
+        );
+    }
+
+    public <T> T execute(Callable<T> task) {
+        Future<T> future = executor.submit(task);
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "passwordHashing";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("poolSize", executor.getPoolSize());
+        metrics.put("active", executor.getActiveCount());
+        metrics.put("queueDepth", executor.getQueue().size());
+        metrics.put("queueRemainingCapacity", executor.getQueue().remainingCapacity());
+        metrics.put("completed", executor.getCompletedTaskCount());
+        metrics.put("rejected", rejected.sum());
+        return metrics;
+    }
+}
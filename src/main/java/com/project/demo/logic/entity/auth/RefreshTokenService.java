@@ -0,0 +1,141 @@
+package com.project.demo.logic.entity.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.demo.logic.entity.refreshToken.RefreshToken;
+import com.project.demo.logic.entity.refreshToken.RefreshTokenRepository;
+import com.project.demo.logic.exceptions.InvalidRefreshTokenException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Issues opaque, rotating refresh tokens. Every refresh consumes the presented token and issues a new one
+ * in the same family; presenting an already consumed token is treated as theft and revokes the whole family.
+ * Within a short grace period after a rotation (two tabs, a retried request) the same token is answered with
+ * the token already issued for it instead, and an expired token is rejected without being consumed.
+ */
+@Service
+public class RefreshTokenService {
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${security.jwt.refresh-expiration-time:1209600000}")
+    private long refreshExpiration;
+
+    private final long reuseGracePeriod;
+
+    // Rotations of the last grace period, keyed by the digest of the consumed token
+    private final Cache<String, Rotation> recentRotations;
+
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            @Value("${security.jwt.refresh-reuse-grace-period:10000}") long reuseGracePeriod
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.reuseGracePeriod = reuseGracePeriod;
+        this.recentRotations = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMillis(reuseGracePeriod))
+                .build();
+    }
+
+    public record Rotation(Long userId, String refreshToken) {}
+
+    @Transactional
+    public String issue(Long userId) {
+        return create(userId, UUID.randomUUID().toString());
+    }
+
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new InvalidRefreshTokenException("Refresh token is required");
+        }
+
+        // Concurrent refreshes with the same token wait for the first one and share the token it issued
+        return recentRotations.get(digest(rawToken), this::rotateOnce);
+    }
+
+    private Rotation rotateOnce(String tokenHash) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(tokenHash)
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is invalid"));
+
+        Date now = new Date();
+        if (refreshToken.getExpiresAt().before(now)) {
+            throw new InvalidRefreshTokenException("Refresh token has expired");
+        }
+
+        if (refreshToken.isUsed() || refreshTokenRepository.markUsed(refreshToken.getId(), now) == 0) {
+            // Lost a race with another instance, or rotated moments ago by a rotation no longer at hand
+            Date usedAt = refreshToken.isUsed() ? refreshToken.getUsedAt() : now;
+            if (usedAt != null && now.getTime() - usedAt.getTime() < reuseGracePeriod) {
+                throw new InvalidRefreshTokenException("Refresh token was already rotated");
+            }
+            refreshTokenRepository.deleteByFamilyId(refreshToken.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token reuse detected, the session has been revoked");
+        }
+
+        return new Rotation(refreshToken.getUserId(), create(refreshToken.getUserId(), refreshToken.getFamilyId()));
+    }
+
+    @Transactional
+    public void revokeFamily(String rawToken) {
+        refreshTokenRepository.findByTokenHash(digest(rawToken)).ifPresent(refreshToken -> {
+            refreshTokenRepository.deleteByFamilyId(refreshToken.getFamilyId());
+            forgetRotations(refreshToken.getUserId());
+        });
+    }
+
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+        forgetRotations(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.refresh-cleanup-interval:3600000}")
+    @Transactional
+    public void deleteExpired() {
+        refreshTokenRepository.deleteExpired(new Date());
+    }
+
+    // Revoked tokens must not be handed out again by the grace period
+    private void forgetRotations(Long userId) {
+        recentRotations.asMap().values().removeIf(rotation -> rotation.userId().equals(userId));
+    }
+
+    private String create(Long userId, String familyId) {
+        byte[] tokenBytes = new byte[32];
+        secureRandom.nextBytes(tokenBytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(digest(rawToken));
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setUserId(userId);
+        refreshToken.setExpiresAt(new Date(System.currentTimeMillis() + refreshExpiration));
+        refreshTokenRepository.save(refreshToken);
+
+        return rawToken;
+    }
+
+    private static String digest(String rawToken) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.project.demo.logic.entity.auth;
+
+import com.project.demo.logic.entity.metrics.MetricsSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Blocklist of revoked token ids (jti). Lookups probe a Bloom filter first and only confirm against the
+ * exact set on a possible hit, so the common "not revoked" case touches a few words of memory and allocates
+ * nothing. Entries are dropped once the token's exp has passed and the filter is rebuilt from what is left,
+ * so memory only depends on how many unexpired tokens have been revoked.
+ */
+@Component
+public class TokenBlocklist implements MetricsSource {
+    private static final int HASH_FUNCTIONS = 4;
+
+    private final int bitCount;
+
+    private final Map<String, Long> revokedUntil = new ConcurrentHashMap<>();
+
+    private volatile AtomicLongArray bloom;
+
+    private final LongAdder bloomHits = new LongAdder();
+
+    private final LongAdder falsePositives = new LongAdder();
+
+    public TokenBlocklist(@Value("${security.jwt.blocklist.bloom-bits:1048576}") int bloomBits) {
+        this.bitCount = Math.max(64, Integer.highestOneBit(bloomBits));
+        this.bloom = new AtomicLongArray(bitCount / 64);
+    }
+
+    public synchronized void revoke(String tokenId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        revokedUntil.put(tokenId, expiresAtMillis);
+        setBits(bloom, tokenId);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!mightContain(bloom, tokenId)) {
+            return false;
+        }
+
+        bloomHits.increment();
+        Long expiresAt = revokedUntil.get(tokenId);
+        if (expiresAt == null) {
+            falsePositives.increment();
+            return false;
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.blocklist.purge-interval:60000}")
+    public synchronized void purgeExpired() {
+        long now = System.currentTimeMillis();
+        if (!revokedUntil.values().removeIf(expiresAt -> expiresAt <= now)) {
+            return;
+        }
+
+        AtomicLongArray rebuilt = new AtomicLongArray(bitCount / 64);
+        revokedUntil.keySet().forEach(tokenId -> setBits(rebuilt, tokenId));
+        bloom = rebuilt;
+    }
+
+    private void setBits(AtomicLongArray bits, String tokenId) {
+        long hash = mix(tokenId.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = (h1 + i * h2) & (bitCount - 1);
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private boolean mightContain(AtomicLongArray bits, String tokenId) {
+        long hash = mix(tokenId.hashCode());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = (h1 + i * h2) & (bitCount - 1);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 64-bit finalizer from MurmurHash3, spreads the 32-bit String hash into two independent halves
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "tokenBlocklist";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("revokedTokens", revokedUntil.size());
+        metrics.put("bloomBits", bitCount);
+        metrics.put("bloomHits", bloomHits.sum());
+        metrics.put("falsePositives", falsePositives.sum());
+        return metrics;
+    }
+}
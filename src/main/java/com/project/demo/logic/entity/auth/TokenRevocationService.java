@@ -0,0 +1,71 @@
+package com.project.demo.logic.entity.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.demo.logic.entity.user.UserRepository;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Rejects revoked tokens without a database lookup per request. Single tokens (logout) go to the
+ * {@link TokenBlocklist}. For a whole user (deletion, role or credential change, admin revocation) every token
+ * carries the user's token version, stored in {@code user.token_version}; bumping it invalidates all tokens
+ * issued so far, across restarts. Versions are read through a bounded cache, and a user that no longer exists
+ * has no valid version at all.
+ */
+@Service
+public class TokenRevocationService {
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
+    private static final int DELETED_USER_VERSION = Integer.MAX_VALUE;
+
+    private final Cache<Long, Integer> tokenVersions;
+
+    private final TokenBlocklist tokenBlocklist;
+
+    private final UserRepository userRepository;
+
+    public TokenRevocationService(
+            TokenBlocklist tokenBlocklist,
+            UserRepository userRepository,
+            @Value("${security.jwt.token-version-cache.max-size:100000}") long tokenVersionCacheMaxSize
+    ) {
+        this.tokenBlocklist = tokenBlocklist;
+        this.userRepository = userRepository;
+        this.tokenVersions = Caffeine.newBuilder()
+                .maximumSize(tokenVersionCacheMaxSize)
+                .build();
+    }
+
+    public int currentVersion(Long userId) {
+        return tokenVersions.get(userId, id -> userRepository.findTokenVersionById(id).orElse(DELETED_USER_VERSION));
+    }
+
+    public void revokeAllForUser(Long userId) {
+        // Invalidation waits for a load of the same key in flight, so the old version cannot be cached again
+        userRepository.incrementTokenVersion(userId);
+        tokenVersions.invalidate(userId);
+    }
+
+    public void revokeToken(Claims claims) {
+        if (claims.getId() != null && claims.getExpiration() != null) {
+            tokenBlocklist.revoke(claims.getId(), claims.getExpiration().getTime());
+        }
+    }
+
+    public boolean isRevoked(Claims claims) {
+        if (claims.getId() != null && tokenBlocklist.isRevoked(claims.getId())) {
+            return true;
+        }
+
+        Long userId = claims.get(UserPrincipal.USER_ID_CLAIM, Long.class);
+
+        if (userId == null) {
+            return false;
+        }
+
+        Integer version = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        return (version == null ? 0 : version) < currentVersion(userId);
+    }
+}
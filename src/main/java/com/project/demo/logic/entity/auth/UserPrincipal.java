@@ -0,0 +1,98 @@
+package com.project.demo.logic.entity.auth;
+
+import com.project.demo.logic.entity.rol.RoleEnum;
+import com.project.demo.logic.entity.user.User;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Slim, immutable authentication principal. Unlike {@link User} it carries no JPA state,
+ * so it can be built straight from JWT claims or kept in a cache.
+ */
+public class UserPrincipal implements UserDetails {
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+
+    private final Long id;
+    private final String email;
+    private final String password;
+    private final RoleEnum role;
+
+    public UserPrincipal(Long id, String email, String password, RoleEnum role) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.role = role;
+    }
+
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getPassword(), user.getRole().getName());
+    }
+
+    /**
+     * Builds a principal from the claims of a verified token, or returns null when the token
+     * predates the id/role claims and the user has to be loaded from the database.
+     */
+    public static UserPrincipal fromClaims(Claims claims) {
+        Long id = claims.get(USER_ID_CLAIM, Long.class);
+        String role = claims.get(ROLE_CLAIM, String.class);
+
+        if (id == null || role == null) {
+            return null;
+        }
+
+        return new UserPrincipal(id, claims.getSubject(), null, RoleEnum.valueOf(role));
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public RoleEnum getRole() {
+        return role;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.toString()));
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+package com.project.demo.logic.entity.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.demo.logic.entity.metrics.MetricsSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of slim principals by email, sitting in front of the UserDetailsService.
+ * Writers that change a user's credentials or role must evict the affected emails.
+ */
+@Component
+public class UserPrincipalCache implements MetricsSource {
+    private final Cache<String, UserPrincipal> principals;
+
+    public UserPrincipalCache(
+            @Value("${security.user-cache.max-size:10000}") long maxSize,
+            @Value("${security.user-cache.expire-after-write:300000}") long expireAfterWrite
+    ) {
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWrite))
+                .recordStats()
+                .build();
+    }
+
+    public UserPrincipal get(String email, Function<String, UserPrincipal> loader) {
+        return principals.get(email, loader);
+    }
+
+    public void evict(String... emails) {
+        for (String email : emails) {
+            if (email != null) {
+                principals.invalidate(email);
+            }
+        }
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "userPrincipalCache";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        return MetricsSource.cacheMetrics(principals);
+    }
+}
@@ -1,9 +1,24 @@
 package com.project.demo.logic.entity.category;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+    String SUMMARY_SELECT = "SELECT new com.project.demo.logic.entity.category.CategorySummaryView(c.id, c.nombre, " +
+            "c.descripcion, COUNT(p), COALESCE(SUM(CASE WHEN p.stock > 0 THEN 1 ELSE 0 END), 0), " +
+            "MIN(p.price), MAX(p.price)) FROM Category c LEFT JOIN c.productos p";
+
+    @Query("SELECT new com.project.demo.logic.entity.category.CategoryView(c.id, c.nombre, c.descripcion) FROM Category c")
+    List<CategoryView> findAllViews();
+
+    @Query(SUMMARY_SELECT + " GROUP BY c.id, c.nombre, c.descripcion")
+    List<CategorySummaryView> findSummaries();
 
-}
\ No newline at end of file
+    @Query(SUMMARY_SELECT + " WHERE c.id IN ?1 GROUP BY c.id, c.nombre, c.descripcion")
+    List<CategorySummaryView> findSummariesByIds(Collection<Long> ids);
+}
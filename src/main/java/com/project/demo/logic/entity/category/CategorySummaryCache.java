@@ -0,0 +1,91 @@
+package com.project.demo.logic.entity.category;
+
+import com.project.demo.logic.entity.metrics.MetricsSource;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-category product counts and price bounds. The first read runs the GROUP BY over every category; after
+ * that, writers mark the categories they touched and the next read re-aggregates only those, in one query.
+ * Reads with nothing pending return the cached list without locking.
+ */
+@Component
+public class CategorySummaryCache implements MetricsSource {
+    private final CategoryRepository categoryRepository;
+
+    private final Set<Long> staleIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong fullLoads = new AtomicLong();
+
+    private final AtomicLong partialRefreshes = new AtomicLong();
+
+    private Map<Long, CategorySummaryView> summariesById;
+
+    private volatile List<CategorySummaryView> summaries;
+
+    public CategorySummaryCache(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    public List<CategorySummaryView> getAll() {
+        List<CategorySummaryView> current = summaries;
+        if (current != null && staleIds.isEmpty()) {
+            return current;
+        }
+        return refresh();
+    }
+
+    /** Marks categories whose products changed; null ids are ignored. */
+    public void markStale(Long... categoryIds) {
+        for (Long categoryId : categoryIds) {
+            if (categoryId != null) {
+                staleIds.add(categoryId);
+            }
+        }
+    }
+
+    private synchronized List<CategorySummaryView> refresh() {
+        if (summaries == null) {
+            // Ids marked while the full load runs are re-read on the next call
+            staleIds.clear();
+            summariesById = new HashMap<>();
+            categoryRepository.findSummaries().forEach(summary -> summariesById.put(summary.id(), summary));
+            fullLoads.incrementAndGet();
+        } else if (!staleIds.isEmpty()) {
+            List<Long> ids = List.copyOf(staleIds);
+            staleIds.removeAll(ids);
+            ids.forEach(summariesById::remove);
+            categoryRepository.findSummariesByIds(ids).forEach(summary -> summariesById.put(summary.id(), summary));
+            partialRefreshes.incrementAndGet();
+        }
+
+        summaries = summariesById.values().stream()
+                .sorted(Comparator.comparing(CategorySummaryView::id))
+                .toList();
+        return summaries;
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "categorySummaryCache";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        List<CategorySummaryView> current = summaries;
+        metrics.put("size", current == null ? 0 : current.size());
+        metrics.put("pending", staleIds.size());
+        metrics.put("fullLoads", fullLoads.get());
+        metrics.put("partialRefreshes", partialRefreshes.get());
+        return metrics;
+    }
+}
@@ -0,0 +1,5 @@
+package com.project.demo.logic.entity.category;
+
+public record CategorySummaryView(Long id, String nombre, String descripcion, long productCount,
+                                  long inStockCount, Double minPrice, Double maxPrice) {
+}
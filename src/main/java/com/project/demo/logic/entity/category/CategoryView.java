@@ -0,0 +1,8 @@
+package com.project.demo.logic.entity.category;
+
+public record CategoryView(Long id, String nombre, String descripcion) {
+    public static CategoryView from(Category category) {
+        return category == null ? null
+                : new CategoryView(category.getId(), category.getNombre(), category.getDescripcion());
+    }
+}
@@ -10,7 +10,8 @@ import java.util.Date;
 @Entity
 public class Game {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "game_seq")
+    @SequenceGenerator(name = "game_seq", sequenceName = "game_seq", allocationSize = 50)
     private  Long id;
     private String name;
     private String description;
@@ -0,0 +1,35 @@
+package com.project.demo.logic.entity.http;
+
+import com.project.demo.logic.exceptions.VersionConflictException;
+
+/**
+ * Strong ETags derived from an entity's {@code @Version} column.
+ */
+public final class ETags {
+    private ETags() {
+    }
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * The version an If-Match header asks for, or null when the header is absent or {@code *}.
+     * A header naming anything other than a single version can never match and fails the precondition.
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String tag = ifMatch.trim();
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // falls through to the precondition failure below
+            }
+        }
+        throw new VersionConflictException("If-Match " + ifMatch + " does not name a current version");
+    }
+}
@@ -1,22 +1,46 @@
 package com.project.demo.logic.entity.http;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.data.domain.Slice;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class Meta {
     private String method;
     private String url;
 
-    private int totalPages;
+    private Integer totalPages;
+
+    private Long totalElements;
 
-    private long totalElements;
+    private Integer pageNumber;
 
-    private int pageNumber;
+    private Integer pageSize;
 
-    private int pageSize;
+    private String nextCursor;
+
+    private Boolean hasNext;
 
     public Meta(String method, String url) {
         this.method = method;
         this.url = url;
     }
 
+    /**
+     * Meta for a count-free slice; the totals are only filled in when a (cached) total is passed.
+     */
+    public static Meta forSlice(HttpServletRequest request, Slice<?> slice, Long totalElements) {
+        Meta meta = new Meta(request.getMethod(), request.getRequestURL().toString());
+        meta.setPageNumber(slice.getNumber() + 1);
+        meta.setPageSize(slice.getSize());
+        meta.setHasNext(slice.hasNext());
+        if (totalElements != null) {
+            meta.setTotalElements(totalElements);
+            meta.setTotalPages(slice.getSize() == 0 ? 1 : (int) Math.ceil((double) totalElements / slice.getSize()));
+        }
+        return meta;
+    }
+
     public String getMethod() {
         return method;
     }
@@ -33,7 +57,7 @@ public class Meta {
         this.url = url;
     }
 
-    public int getTotalPages() {
+    public Integer getTotalPages() {
         return totalPages;
     }
 
@@ -41,7 +65,7 @@ public class Meta {
         this.totalPages = totalPages;
     }
 
-    public long getTotalElements() {
+    public Long getTotalElements() {
         return totalElements;
     }
 
@@ -49,7 +73,7 @@ public class Meta {
         this.totalElements = totalElements;
     }
 
-    public int getPageNumber() {
+    public Integer getPageNumber() {
         return pageNumber;
     }
 
@@ -57,11 +81,27 @@ public class Meta {
         this.pageNumber = pageNumber;
     }
 
-    public int getPageSize() {
+    public Integer getPageSize() {
         return pageSize;
     }
 
     public void setPageSize(int pageSize) {
         this.pageSize = pageSize;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Boolean getHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(Boolean hasNext) {
+        this.hasNext = hasNext;
+    }
 }
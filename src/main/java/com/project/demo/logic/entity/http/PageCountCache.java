@@ -0,0 +1,51 @@
+package com.project.demo.logic.entity.http;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.demo.logic.entity.metrics.MetricsSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of row counts per listing filter, so paging clients that need totals do not run
+ * a COUNT(*) on every page. Writers invalidate the keys they affect; anything else ages out quickly.
+ */
+@Component
+public class PageCountCache implements MetricsSource {
+    private final Cache<String, Long> counts;
+
+    public PageCountCache(
+            @Value("${pagination.count-cache.max-size:1000}") long maxSize,
+            @Value("${pagination.count-cache.expire-after-write:30000}") long expireAfterWrite
+    ) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWrite))
+                .recordStats()
+                .build();
+    }
+
+    public long get(String key, Supplier<Long> counter) {
+        return counts.get(key, ignored -> counter.get());
+    }
+
+    public void invalidate(String... keys) {
+        for (String key : keys) {
+            counts.invalidate(key);
+        }
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "pageCountCache";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        return MetricsSource.cacheMetrics(counts);
+    }
+}
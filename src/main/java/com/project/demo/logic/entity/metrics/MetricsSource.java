@@ -0,0 +1,27 @@
+package com.project.demo.logic.entity.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Component that exposes its counters on the admin metrics endpoint.
+ */
+public interface MetricsSource {
+    String getMetricsName();
+
+    Map<String, Object> getMetrics();
+
+    static Map<String, Object> cacheMetrics(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", cache.estimatedSize());
+        metrics.put("hits", stats.hitCount());
+        metrics.put("misses", stats.missCount());
+        metrics.put("hitRate", stats.hitRate());
+        metrics.put("evictions", stats.evictionCount());
+        return metrics;
+    }
+}
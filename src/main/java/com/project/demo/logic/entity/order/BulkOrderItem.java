@@ -0,0 +1,3 @@
+package com.project.demo.logic.entity.order;
+
+public record BulkOrderItem(Long userId, String description, Double total) {}
@@ -0,0 +1,14 @@
+package com.project.demo.logic.entity.order;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkOrderResult(int index, Long id, String error) {
+    public static BulkOrderResult created(int index, Long id) {
+        return new BulkOrderResult(index, id, null);
+    }
+
+    public static BulkOrderResult rejected(int index, String error) {
+        return new BulkOrderResult(index, null, error);
+    }
+}
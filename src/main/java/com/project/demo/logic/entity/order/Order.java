@@ -4,18 +4,22 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.project.demo.logic.entity.user.User;
 import jakarta.persistence.*;
 
-@Table(name = "`order`")
+@Table(name = "`order`", indexes = @Index(name = "idx_order_user_id", columnList = "user_id, id"))
 @Entity
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "order_seq", allocationSize = 50)
     private Long id;
 
     private String description;
     private Double total;
 
+    @Version
+    private long version;
+
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name =  "user_id")
     private User user;
 
@@ -43,6 +47,14 @@ public class Order {
         this.total = total;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public User getUser() {
         return user;
     }
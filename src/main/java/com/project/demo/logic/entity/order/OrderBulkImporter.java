@@ -0,0 +1,219 @@
+package com.project.demo.logic.entity.order;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.project.demo.logic.entity.http.PageCountCache;
+import com.project.demo.logic.entity.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams orders from a JSON array or NDJSON body into the database chunk by chunk. Each chunk resolves its
+ * users with one query, inserts in JDBC batches and updates the {@link UserOrderSummary} rows in its own
+ * transaction, then writes one NDJSON result line per item, so only a single chunk is ever held in memory.
+ * A chunk whose transaction fails is rolled back and its items are reported as rejected; the chunks before it
+ * stay committed and the import goes on.
+ */
+@Component
+public class OrderBulkImporter {
+    private static final Logger logger = LoggerFactory.getLogger(OrderBulkImporter.class);
+
+    private final OrderRepository orderRepository;
+
+    private final UserRepository userRepository;
+
+    private final UserOrderSummaryRepository userOrderSummaryRepository;
+
+    private final PageCountCache pageCountCache;
+
+    private final ObjectReader itemReader;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate chunkTransaction;
+
+    private final int chunkSize;
+
+    private final int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OrderBulkImporter(
+            OrderRepository orderRepository,
+            UserRepository userRepository,
+            UserOrderSummaryRepository userOrderSummaryRepository,
+            PageCountCache pageCountCache,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${orders.bulk.chunk-size:1000}") int chunkSize,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize
+    ) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.userOrderSummaryRepository = userOrderSummaryRepository;
+        this.pageCountCache = pageCountCache;
+        this.objectMapper = objectMapper;
+        this.itemReader = objectMapper.readerFor(BulkOrderItem.class);
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+    }
+
+    public record Report(int received, int created, int rejected) {}
+
+    public Report importOrders(InputStream input, OutputStream output) throws IOException {
+        int received = 0;
+        int created = 0;
+        List<BulkOrderItem> chunk = new ArrayList<>(chunkSize);
+
+        // readValues accepts both a root-level JSON array and a whitespace separated sequence of objects
+        try (MappingIterator<BulkOrderItem> items = itemReader.readValues(input);
+             SequenceWriter results = objectMapper.writer().withRootValueSeparator("\n").writeValues(output)) {
+            try {
+                while (items.hasNextValue()) {
+                    chunk.add(items.nextValue());
+                    if (chunk.size() == chunkSize) {
+                        created += writeResults(results, persistChunk(received, chunk));
+                        received += chunk.size();
+                        chunk.clear();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                created += writeResults(results, persistChunk(received, chunk));
+                received += chunk.size();
+                chunk.clear();
+                results.write(BulkOrderResult.rejected(received, "Malformed input: " + e.getOriginalMessage()));
+                results.flush();
+                return report(received, created);
+            }
+
+            created += writeResults(results, persistChunk(received, chunk));
+            received += chunk.size();
+        }
+
+        return report(received, created);
+    }
+
+    private Report report(int received, int created) {
+        Report report = new Report(received, created, received - created);
+        logger.info("Bulk order import: {} received, {} created, {} rejected",
+                report.received(), report.created(), report.rejected());
+        return report;
+    }
+
+    private static int writeResults(SequenceWriter results, List<BulkOrderResult> chunkResults) throws IOException {
+        int created = 0;
+        for (BulkOrderResult result : chunkResults) {
+            results.write(result);
+            if (result.error() == null) {
+                created++;
+            }
+        }
+        results.flush();
+        return created;
+    }
+
+    private List<BulkOrderResult> persistChunk(int firstIndex, List<BulkOrderItem> items) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> requestedUserIds = items.stream()
+                .map(BulkOrderItem::userId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        List<BulkOrderResult> results;
+        try {
+            results = chunkTransaction.execute(status -> {
+                Set<Long> existingUserIds = requestedUserIds.isEmpty() ? Set.of()
+                        : new HashSet<>(userRepository.findExistingIds(requestedUserIds));
+                List<BulkOrderResult> chunkResults = new ArrayList<>(items.size());
+                Map<Long, Long> counts = new HashMap<>();
+                Map<Long, Double> totals = new HashMap<>();
+                Map<Long, Long> lastOrderIds = new HashMap<>();
+                int pending = 0;
+
+                for (int i = 0; i < items.size(); i++) {
+                    BulkOrderItem item = items.get(i);
+                    int index = firstIndex + i;
+
+                    if (item == null || item.userId() == null) {
+                        chunkResults.add(BulkOrderResult.rejected(index, "userId is required"));
+                        continue;
+                    }
+                    if (!existingUserIds.contains(item.userId())) {
+                        chunkResults.add(BulkOrderResult.rejected(index, "User id " + item.userId() + " not found"));
+                        continue;
+                    }
+
+                    Order order = new Order();
+                    order.setDescription(item.description());
+                    order.setTotal(item.total());
+                    order.setUser(userRepository.getReferenceById(item.userId()));
+                    Long orderId = orderRepository.save(order).getId();
+
+                    counts.merge(item.userId(), 1L, Long::sum);
+                    totals.merge(item.userId(), item.total() == null ? 0 : item.total(), Double::sum);
+                    lastOrderIds.merge(item.userId(), orderId, Math::max);
+                    chunkResults.add(BulkOrderResult.created(index, orderId));
+
+                    // Hand each full JDBC batch to the driver and detach it so the persistence context stays small
+                    if (++pending == batchSize) {
+                        entityManager.flush();
+                        entityManager.clear();
+                        pending = 0;
+                    }
+                }
+
+                entityManager.flush();
+                counts.forEach((userId, count) -> userOrderSummaryRepository.addOrders(
+                        userId, count, totals.get(userId), lastOrderIds.get(userId)));
+                entityManager.clear();
+                return chunkResults;
+            });
+        } catch (DataAccessException | TransactionException e) {
+            // Nothing of this chunk was stored, so every item is rejected and the counts stay as they were
+            logger.warn("Bulk order import: chunk starting at item {} failed", firstIndex, e);
+            List<BulkOrderResult> rejected = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                rejected.add(BulkOrderResult.rejected(firstIndex + i, "Chunk could not be stored: "
+                        + e.getMostSpecificCause().getMessage()));
+            }
+            return rejected;
+        }
+
+        if (!requestedUserIds.isEmpty()) {
+            List<String> keys = new ArrayList<>(requestedUserIds.size() + 1);
+            keys.add("orders");
+            requestedUserIds.forEach(userId -> keys.add("orders:user:" + userId));
+            pageCountCache.invalidate(keys.toArray(String[]::new));
+        }
+
+        return results;
+    }
+}
@@ -0,0 +1,38 @@
+package com.project.demo.logic.entity.order;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in the (user_id, id) ordering of orders.
+ */
+public record OrderCursor(long userId, long id) {
+    public static final OrderCursor START = new OrderCursor(0, 0);
+
+    public static OrderCursor after(Order order) {
+        return new OrderCursor(order.getUser() == null ? 0 : order.getUser().getId(), order.getId());
+    }
+
+    /**
+     * Decodes a cursor sent by a client; an empty value starts from the beginning and a malformed one yields null.
+     */
+    public static OrderCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII).split(":");
+            if (parts.length != 2) {
+                return null;
+            }
+            return new OrderCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((userId + ":" + id).getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,111 @@
+package com.project.demo.logic.entity.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes orders straight from a forward-only result set to an output stream. Rows are read as
+ * {@link OrderView} projections, so nothing accumulates in the persistence context and memory stays
+ * flat however many orders match.
+ */
+@Component
+public class OrderExporter {
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final OrderRepository orderRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public OrderExporter(
+            OrderRepository orderRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void export(Format format, Long userId, Long fromId, Long toId, OutputStream output) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<OrderView> orders = orderRepository.streamViews(userId, fromId, toId)) {
+                    if (format == Format.CSV) {
+                        writeCsv(orders.iterator(), output);
+                    } else {
+                        writeNdjson(orders.iterator(), output);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeNdjson(Iterator<OrderView> orders, OutputStream output) throws IOException {
+        try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(output)) {
+            while (orders.hasNext()) {
+                writer.write(orders.next());
+            }
+        }
+    }
+
+    private static void writeCsv(Iterator<OrderView> orders, OutputStream output) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+            writer.write("id,userId,description,total\n");
+            while (orders.hasNext()) {
+                OrderView order = orders.next();
+                writer.write(order.id() + "," + csvValue(order.userId()) + "," + csvValue(order.description())
+                        + "," + csvValue(order.total()) + "\n");
+            }
+        }
+    }
+
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+}
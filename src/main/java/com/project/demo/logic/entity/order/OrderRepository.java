@@ -1,13 +1,22 @@
 package com.project.demo.logic.entity.order;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     // @Query("SELECT o FROM Order o WHERE o.user.id = ?3")
@@ -17,4 +26,49 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // List<Order> getOrderByUserId(@Param("userId") Long userId);
 
     Page<Order> getOrderByUserId(Long id, Pageable pageable);
+
+    Slice<Order> findAllBy(Pageable pageable);
+
+    Slice<Order> findSliceByUserId(Long userId, Pageable pageable);
+
+    long countByUserId(Long userId);
+
+    @Query("SELECT o FROM Order o WHERE o.user.id >= :userId AND (o.user.id > :userId OR o.id > :id) " +
+            "ORDER BY o.user.id, o.id")
+    List<Order> findPageAfter(@Param("userId") Long userId, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT o FROM Order o WHERE o.user IS NULL AND o.id > :id ORDER BY o.id")
+    List<Order> findUnassignedPageAfter(@Param("id") Long id, Limit limit);
+
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId AND o.id > :id ORDER BY o.id")
+    List<Order> findUserPageAfter(@Param("userId") Long userId, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT new com.project.demo.logic.entity.order.OrderView(o.id, o.user.id, o.description, o.total) " +
+            "FROM Order o WHERE o.user.id IN :userIds ORDER BY o.id")
+    List<OrderView> findViewsByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT new com.project.demo.logic.entity.order.UserOrderTotals(o.user.id, COUNT(o), COALESCE(SUM(o.total), 0)) " +
+            "FROM Order o WHERE o.id IN :ids GROUP BY o.user.id")
+    List<UserOrderTotals> sumByIdsGroupedByUser(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Order o WHERE o.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Order o WHERE o.user.id = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.description = COALESCE(:description, o.description), " +
+            "o.total = COALESCE(:total, o.total), o.version = o.version + 1 " +
+            "WHERE o.id = :id AND (:version IS NULL OR o.version = :version)")
+    int patchIfVersion(@Param("id") Long id, @Param("description") String description,
+                       @Param("total") Double total, @Param("version") Long version);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.project.demo.logic.entity.order.OrderView(o.id, o.user.id, o.description, o.total) " +
+            "FROM Order o WHERE (:userId IS NULL OR o.user.id = :userId) " +
+            "AND (:fromId IS NULL OR o.id >= :fromId) AND (:toId IS NULL OR o.id <= :toId) ORDER BY o.id")
+    Stream<OrderView> streamViews(@Param("userId") Long userId, @Param("fromId") Long fromId, @Param("toId") Long toId);
 }
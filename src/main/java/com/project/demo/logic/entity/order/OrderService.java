@@ -0,0 +1,172 @@
+package com.project.demo.logic.entity.order;
+
+import com.project.demo.logic.entity.user.UserRepository;
+import com.project.demo.logic.exceptions.VersionConflictException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Order writes together with the per-user aggregates in {@link UserOrderSummary}, both in one transaction,
+ * so dashboards read counts and sums from the summary table instead of scanning orders.
+ */
+@Service
+public class OrderService {
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private final OrderRepository orderRepository;
+
+    private final UserOrderSummaryRepository userOrderSummaryRepository;
+
+    private final UserRepository userRepository;
+
+    public OrderService(
+            OrderRepository orderRepository,
+            UserOrderSummaryRepository userOrderSummaryRepository,
+            UserRepository userRepository
+    ) {
+        this.orderRepository = orderRepository;
+        this.userOrderSummaryRepository = userOrderSummaryRepository;
+        this.userRepository = userRepository;
+    }
+
+    /** How many orders a bulk delete removed, and the per-user totals taken off the summaries. */
+    public record Deletion(long deleted, List<UserOrderTotals> byUser) {}
+
+    @Transactional
+    public Optional<Order> create(Long userId, Order order) {
+        if (!userRepository.existsById(userId)) {
+            return Optional.empty();
+        }
+
+        order.setUser(userRepository.getReferenceById(userId));
+        Order savedOrder = orderRepository.save(order);
+        userOrderSummaryRepository.addOrders(userId, 1, totalOf(savedOrder), savedOrder.getId());
+        return Optional.of(savedOrder);
+    }
+
+    @Transactional
+    public Optional<Order> update(Long orderId, Order order, Long expectedVersion) {
+        return orderRepository.findById(orderId).map(foundOrder -> {
+            checkVersion(foundOrder, expectedVersion);
+            double delta = totalOf(order) - totalOf(foundOrder);
+            foundOrder.setDescription(order.getDescription());
+            foundOrder.setTotal(order.getTotal());
+            adjustTotal(foundOrder, delta);
+            // Flush so the returned order carries its new version
+            orderRepository.flush();
+            return foundOrder;
+        });
+    }
+
+    /**
+     * Applies the non-null fields of the patch with a conditional UPDATE instead of loading the order. A new
+     * total takes a second statement before it, which moves the owner's summary by the difference under the
+     * same version condition; both run in this transaction. A null expected version skips the check. Returns
+     * false when the order does not exist and throws {@link VersionConflictException} when it exists at
+     * another version.
+     */
+    @Transactional
+    public boolean patch(Long orderId, Order order, Long expectedVersion) {
+        if (order.getTotal() != null) {
+            userOrderSummaryRepository.adjustTotalForOrder(orderId, order.getTotal(), expectedVersion);
+        }
+
+        if (orderRepository.patchIfVersion(orderId, order.getDescription(), order.getTotal(), expectedVersion) == 1) {
+            return true;
+        }
+        if (!orderRepository.existsById(orderId)) {
+            return false;
+        }
+        throw new VersionConflictException("Order id " + orderId + " is no longer at version " + expectedVersion);
+    }
+
+    @Transactional
+    public Optional<Order> delete(Long orderId) {
+        return orderRepository.findById(orderId).map(foundOrder -> {
+            orderRepository.deleteByIds(List.of(orderId));
+            if (foundOrder.getUser() != null) {
+                Long userId = foundOrder.getUser().getId();
+                userOrderSummaryRepository.removeOrders(userId, 1, totalOf(foundOrder));
+                userOrderSummaryRepository.refreshLastOrderIds(List.of(userId));
+            }
+            return foundOrder;
+        });
+    }
+
+    /**
+     * Deletes the given orders with one set-based statement per chunk of ids. The deleted count is the row
+     * count of those statements, not the totals read beforehand, so ids that were already gone are not counted.
+     */
+    @Transactional
+    public Deletion deleteAll(Collection<Long> orderIds) {
+        List<Long> ids = List.copyOf(orderIds);
+        List<UserOrderTotals> removed = new ArrayList<>();
+        long deleted = 0;
+
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size()));
+            List<UserOrderTotals> totals = orderRepository.sumByIdsGroupedByUser(chunk);
+            deleted += orderRepository.deleteByIds(chunk);
+
+            List<Long> userIds = new ArrayList<>(totals.size());
+            for (UserOrderTotals userTotals : totals) {
+                if (userTotals.userId() != null) {
+                    userOrderSummaryRepository.removeOrders(userTotals.userId(), userTotals.orderCount(), userTotals.total());
+                    userIds.add(userTotals.userId());
+                }
+            }
+            if (!userIds.isEmpty()) {
+                userOrderSummaryRepository.refreshLastOrderIds(userIds);
+            }
+            removed.addAll(totals);
+        }
+        return new Deletion(deleted, removed);
+    }
+
+    /**
+     * Deletes every order of the user in one statement, or returns empty when the user does not exist.
+     */
+    @Transactional
+    public Optional<Integer> deleteAllForUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            return Optional.empty();
+        }
+
+        int deleted = orderRepository.deleteAllByUserId(userId);
+        userOrderSummaryRepository.deleteByUserId(userId);
+        return Optional.of(deleted);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<UserOrderSummary> getSummary(Long userId) {
+        return userOrderSummaryRepository.findById(userId)
+                .or(() -> userRepository.existsById(userId) ? Optional.of(new UserOrderSummary(userId)) : Optional.empty());
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserOrderSummaryView> getTopSpenders(int limit) {
+        return userOrderSummaryRepository.findTopSpenders(Limit.of(limit));
+    }
+
+    private static void checkVersion(Order order, Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != order.getVersion()) {
+            throw new VersionConflictException("Order id " + order.getId() + " is no longer at version " + expectedVersion);
+        }
+    }
+
+    private void adjustTotal(Order order, double delta) {
+        if (delta != 0 && order.getUser() != null) {
+            userOrderSummaryRepository.adjustTotal(order.getUser().getId(), delta);
+        }
+    }
+
+    private static double totalOf(Order order) {
+        return order.getTotal() == null ? 0 : order.getTotal();
+    }
+}
@@ -0,0 +1,58 @@
+package com.project.demo.logic.entity.order;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Compares the incrementally maintained {@link UserOrderSummary} rows with the aggregates recomputed from
+ * the order table in one GROUP BY, and rebuilds the whole summary table in bulk when they have drifted.
+ */
+@Component
+public class OrderSummaryReconciler {
+    private static final Logger logger = LoggerFactory.getLogger(OrderSummaryReconciler.class);
+
+    private static final String ACTUAL_AGGREGATES = "SELECT o.user_id, COUNT(*) AS order_count, " +
+            "COALESCE(SUM(o.total), 0) AS total_sum, MAX(o.id) AS last_order_id " +
+            "FROM `order` o WHERE o.user_id IS NOT NULL GROUP BY o.user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderSummaryReconciler(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public record Report(long driftedUsers, long staleSummaries, long rebuiltUsers, long durationMillis) {}
+
+    @Scheduled(cron = "${orders.summary.reconcile-cron:0 0 3 * * *}")
+    @Transactional
+    public Report reconcile() {
+        long start = System.currentTimeMillis();
+
+        Long driftedUsers = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM (" + ACTUAL_AGGREGATES + ") a " +
+                        "LEFT JOIN user_order_summary s ON s.user_id = a.user_id " +
+                        "WHERE s.user_id IS NULL OR s.order_count <> a.order_count " +
+                        "OR ABS(s.total_sum - a.total_sum) > 0.005 OR NOT (s.last_order_id <=> a.last_order_id)",
+                Long.class);
+        Long staleSummaries = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_order_summary s WHERE NOT EXISTS " +
+                        "(SELECT 1 FROM `order` o WHERE o.user_id = s.user_id)",
+                Long.class);
+
+        long rebuiltUsers = 0;
+        if (driftedUsers + staleSummaries > 0) {
+            jdbcTemplate.update("DELETE FROM user_order_summary");
+            rebuiltUsers = jdbcTemplate.update(
+                    "INSERT INTO user_order_summary (user_id, order_count, total_sum, last_order_id) " + ACTUAL_AGGREGATES);
+        }
+
+        Report report = new Report(driftedUsers, staleSummaries, rebuiltUsers, System.currentTimeMillis() - start);
+        logger.info("Order summary reconciliation: {} drifted users, {} stale summaries, {} users rebuilt in {} ms",
+                report.driftedUsers(), report.staleSummaries(), report.rebuiltUsers(), report.durationMillis());
+        return report;
+    }
+}
@@ -0,0 +1,4 @@
+package com.project.demo.logic.entity.order;
+
+public record OrderView(Long id, Long userId, String description, Double total) {
+}
@@ -0,0 +1,62 @@
+package com.project.demo.logic.entity.order;
+
+import jakarta.persistence.*;
+
+/**
+ * Running order aggregates for one user, maintained by {@link OrderService} on every order write
+ * and rebuilt in bulk by {@link OrderSummaryReconciler}.
+ */
+@Table(name = "user_order_summary", indexes = @Index(name = "idx_user_order_summary_total", columnList = "total_sum"))
+@Entity
+public class UserOrderSummary {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "total_sum", nullable = false)
+    private double totalSum;
+
+    @Column(name = "last_order_id")
+    private Long lastOrderId;
+
+    public UserOrderSummary() {}
+
+    public UserOrderSummary(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public double getTotalSum() {
+        return totalSum;
+    }
+
+    public void setTotalSum(double totalSum) {
+        this.totalSum = totalSum;
+    }
+
+    public Long getLastOrderId() {
+        return lastOrderId;
+    }
+
+    public void setLastOrderId(Long lastOrderId) {
+        this.lastOrderId = lastOrderId;
+    }
+}
@@ -0,0 +1,57 @@
+package com.project.demo.logic.entity.order;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserOrderSummaryRepository extends JpaRepository<UserOrderSummary, Long> {
+    @Modifying
+    @Query(value = "INSERT INTO user_order_summary (user_id, order_count, total_sum, last_order_id) " +
+            "VALUES (:userId, :count, :total, :lastOrderId) " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+            "total_sum = total_sum + VALUES(total_sum), " +
+            "last_order_id = GREATEST(COALESCE(last_order_id, 0), VALUES(last_order_id))",
+            nativeQuery = true)
+    int addOrders(@Param("userId") Long userId, @Param("count") long count,
+                  @Param("total") double total, @Param("lastOrderId") Long lastOrderId);
+
+    @Modifying
+    @Query("UPDATE UserOrderSummary s SET s.totalSum = s.totalSum + :delta WHERE s.userId = :userId")
+    int adjustTotal(@Param("userId") Long userId, @Param("delta") double delta);
+
+    @Modifying
+    @Query(value = "UPDATE user_order_summary s JOIN `order` o ON o.user_id = s.user_id " +
+            "SET s.total_sum = s.total_sum + :total - COALESCE(o.total, 0) " +
+            "WHERE o.id = :orderId AND (:version IS NULL OR o.version = :version)",
+            nativeQuery = true)
+    int adjustTotalForOrder(@Param("orderId") Long orderId, @Param("total") double total,
+                            @Param("version") Long version);
+
+    @Modifying
+    @Query("UPDATE UserOrderSummary s SET s.orderCount = s.orderCount - :count, s.totalSum = s.totalSum - :total " +
+            "WHERE s.userId = :userId")
+    int removeOrders(@Param("userId") Long userId, @Param("count") long count, @Param("total") double total);
+
+    @Modifying
+    @Query(value = "UPDATE user_order_summary s " +
+            "SET s.last_order_id = (SELECT MAX(o.id) FROM `order` o WHERE o.user_id = s.user_id) " +
+            "WHERE s.user_id IN (:userIds)",
+            nativeQuery = true)
+    int refreshLastOrderIds(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("DELETE FROM UserOrderSummary s WHERE s.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT new com.project.demo.logic.entity.order.UserOrderSummaryView(s.userId, u.name, u.lastname, " +
+            "u.email, s.orderCount, s.totalSum, s.lastOrderId) " +
+            "FROM UserOrderSummary s JOIN User u ON u.id = s.userId ORDER BY s.totalSum DESC")
+    List<UserOrderSummaryView> findTopSpenders(Limit limit);
+}
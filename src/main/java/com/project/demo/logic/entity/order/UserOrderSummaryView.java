@@ -0,0 +1,5 @@
+package com.project.demo.logic.entity.order;
+
+public record UserOrderSummaryView(Long userId, String name, String lastname, String email,
+                                   long orderCount, double totalSum, Long lastOrderId) {
+}
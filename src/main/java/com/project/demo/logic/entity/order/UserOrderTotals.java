@@ -0,0 +1,3 @@
+package com.project.demo.logic.entity.order;
+
+public record UserOrderTotals(Long userId, Long orderCount, Double total) {}
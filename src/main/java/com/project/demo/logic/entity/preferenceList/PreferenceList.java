@@ -10,7 +10,8 @@ import java.util.List;
 @Table(name= "preferenceList")
 public class PreferenceList {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "preference_list_seq")
+    @SequenceGenerator(name = "preference_list_seq", sequenceName = "preference_list_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -1,8 +1,11 @@
 package com.project.demo.logic.entity.preferenceList;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface PreferenceListRepository extends JpaRepository<PreferenceList, Long> {
+    Slice<PreferenceList> findAllBy(Pageable pageable);
 }
@@ -0,0 +1,9 @@
+package com.project.demo.logic.entity.product;
+
+/**
+ * One row of a product import. A row with an id updates that product, one without creates a new product.
+ * The category is given either by {@code categoryId} or by {@code category} name, which creates the
+ * category when no category of that name exists yet.
+ */
+public record BulkProductItem(Long id, String name, String description, Double price, Integer stock,
+                              Long categoryId, String category) {}
@@ -0,0 +1,18 @@
+package com.project.demo.logic.entity.product;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkProductResult(int index, Long id, String action, String error) {
+    public static BulkProductResult created(int index, Long id) {
+        return new BulkProductResult(index, id, "created", null);
+    }
+
+    public static BulkProductResult updated(int index, Long id) {
+        return new BulkProductResult(index, id, "updated", null);
+    }
+
+    public static BulkProductResult rejected(int index, String error) {
+        return new BulkProductResult(index, null, null, error);
+    }
+}
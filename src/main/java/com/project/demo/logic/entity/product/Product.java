@@ -2,11 +2,16 @@ package com.project.demo.logic.entity.product;
 import com.project.demo.logic.entity.category.Category;
 import jakarta.persistence.*;
 
-@Table(name = "product")
+@Table(name = "product", indexes = {
+        @Index(name = "idx_product_category_price", columnList = "category_id, price"),
+        @Index(name = "idx_product_stock", columnList = "stock")
+})
 @Entity
+@EntityListeners(ProductIndexListener.class)
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -14,7 +19,7 @@ public class Product {
     private Double price;
     private Integer stock;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
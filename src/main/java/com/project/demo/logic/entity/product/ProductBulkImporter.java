@@ -0,0 +1,398 @@
+package com.project.demo.logic.entity.product;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.project.demo.logic.entity.category.Category;
+import com.project.demo.logic.entity.category.CategoryRepository;
+import com.project.demo.logic.entity.category.CategorySummaryCache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streams products from a CSV, JSON array or NDJSON body into the database chunk by chunk. Categories are
+ * resolved from a map loaded once per import, so a row never costs a category lookup, and categories named
+ * by an unknown name are created on the way. Each chunk loads the products it updates with one query and
+ * inserts and updates in JDBC batches in its own transaction. The search and price indexes, caches and stock
+ * counters are then brought up to date once per chunk instead of once per row. A stock change is applied to
+ * the live counter as a difference, like an edit through the API. A chunk whose transaction fails is rolled
+ * back and its rows are reported as rejected; the chunks before it stay committed and the import goes on.
+ */
+@Component
+public class ProductBulkImporter {
+    private static final Logger logger = LoggerFactory.getLogger(ProductBulkImporter.class);
+
+    public enum Format { JSON, CSV }
+
+    private final ProductRepository productRepository;
+
+    private final CategoryRepository categoryRepository;
+
+    private final ProductSearchIndex productSearchIndex;
+
+    private final ProductPriceIndex productPriceIndex;
+
+    private final ProductCatalogCache productCatalogCache;
+
+    private final CategorySummaryCache categorySummaryCache;
+
+    private final StockReservationEngine stockReservationEngine;
+
+    private final ObjectReader itemReader;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate chunkTransaction;
+
+    private final int chunkSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductBulkImporter(
+            ProductRepository productRepository,
+            CategoryRepository categoryRepository,
+            ProductSearchIndex productSearchIndex,
+            ProductPriceIndex productPriceIndex,
+            ProductCatalogCache productCatalogCache,
+            CategorySummaryCache categorySummaryCache,
+            StockReservationEngine stockReservationEngine,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${products.import.chunk-size:1000}") int chunkSize
+    ) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.productPriceIndex = productPriceIndex;
+        this.productCatalogCache = productCatalogCache;
+        this.categorySummaryCache = categorySummaryCache;
+        this.stockReservationEngine = stockReservationEngine;
+        this.objectMapper = objectMapper;
+        this.itemReader = objectMapper.readerFor(BulkProductItem.class);
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public record Report(int received, int created, int updated, int rejected) {}
+
+    /** A parsed row, or the reason it could not be parsed. */
+    private record Row(BulkProductItem item, String error) {}
+
+    private interface RowSource extends Closeable {
+        /** Returns the next item, null at the end of the input. */
+        BulkProductItem next() throws IOException;
+    }
+
+    /** What one chunk changed, applied to the indexes and caches after its transaction committed. */
+    private static final class ChunkChanges {
+        private final List<BulkProductResult> results = new ArrayList<>();
+        private final Map<Long, ProductView> saved = new HashMap<>();
+        private final Set<Long> updatedIds = new HashSet<>();
+        private final Set<Long> categoryIds = new HashSet<>();
+        private final Map<String, Long> createdCategories = new HashMap<>();
+        // {productId, readStock, newStock} of every stock change applied to the counters, undone on a rollback
+        private final List<long[]> stockChanges = new ArrayList<>();
+    }
+
+    /** Categories known to this import, by id and by normalized name. */
+    private static final class Categories {
+        private final Set<Long> ids = new HashSet<>();
+        private final Map<String, Long> idsByName = new HashMap<>();
+    }
+
+    public Report importProducts(Format format, InputStream input, OutputStream output) throws IOException {
+        Categories categories = new Categories();
+        categoryRepository.findAllViews().forEach(category -> {
+            categories.ids.add(category.id());
+            if (category.nombre() != null) {
+                categories.idsByName.putIfAbsent(categoryKey(category.nombre()), category.id());
+            }
+        });
+
+        int received = 0;
+        int[] counts = new int[2];
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        try (RowSource rows = open(format, input);
+             SequenceWriter results = objectMapper.writer().withRootValueSeparator("\n").writeValues(output)) {
+            try {
+                while (true) {
+                    Row row;
+                    try {
+                        BulkProductItem item = rows.next();
+                        if (item == null) {
+                            break;
+                        }
+                        row = new Row(item, null);
+                    } catch (IllegalArgumentException e) {
+                        // Only CSV rows fail one by one; the reader already moved past the bad row
+                        row = new Row(null, e.getMessage());
+                    }
+                    chunk.add(row);
+                    if (chunk.size() == chunkSize) {
+                        writeResults(results, persistChunk(received, chunk, categories), counts);
+                        received += chunk.size();
+                        chunk.clear();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                writeResults(results, persistChunk(received, chunk, categories), counts);
+                received += chunk.size();
+                chunk.clear();
+                results.write(BulkProductResult.rejected(received, "Malformed input: " + e.getOriginalMessage()));
+                results.flush();
+                return report(received, counts);
+            }
+
+            writeResults(results, persistChunk(received, chunk, categories), counts);
+            received += chunk.size();
+        }
+
+        return report(received, counts);
+    }
+
+    private RowSource open(Format format, InputStream input) throws IOException {
+        if (format == Format.CSV) {
+            ProductCsvReader reader = new ProductCsvReader(input);
+            return new RowSource() {
+                @Override
+                public BulkProductItem next() throws IOException {
+                    return reader.next();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    reader.close();
+                }
+            };
+        }
+
+        // readValues accepts both a root-level JSON array and a whitespace separated sequence of objects
+        MappingIterator<BulkProductItem> items = itemReader.readValues(input);
+        return new RowSource() {
+            @Override
+            public BulkProductItem next() throws IOException {
+                return items.hasNextValue() ? items.nextValue() : null;
+            }
+
+            @Override
+            public void close() throws IOException {
+                items.close();
+            }
+        };
+    }
+
+    private Report report(int received, int[] counts) {
+        Report report = new Report(received, counts[0], counts[1], received - counts[0] - counts[1]);
+        logger.info("Bulk product import: {} received, {} created, {} updated, {} rejected",
+                report.received(), report.created(), report.updated(), report.rejected());
+        return report;
+    }
+
+    private static void writeResults(SequenceWriter results, List<BulkProductResult> chunkResults, int[] counts)
+            throws IOException {
+        for (BulkProductResult result : chunkResults) {
+            results.write(result);
+            if ("created".equals(result.action())) {
+                counts[0]++;
+            } else if ("updated".equals(result.action())) {
+                counts[1]++;
+            }
+        }
+        results.flush();
+    }
+
+    private List<BulkProductResult> persistChunk(int firstIndex, List<Row> rows, Categories categories) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> requestedIds = rows.stream()
+                .map(Row::item)
+                .filter(Objects::nonNull)
+                .map(BulkProductItem::id)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        ChunkChanges changes = new ChunkChanges();
+        try {
+            // The listener would republish the whole price index once per row; the chunk is indexed in one go below
+            ProductIndexListener.withoutIndexing(() -> chunkTransaction.execute(status -> {
+                fillChunk(firstIndex, rows, requestedIds, categories, changes);
+                return changes;
+            }));
+        } catch (DataAccessException | TransactionException e) {
+            // Nothing of this chunk was stored, so the counters go back to where they were and every row is rejected
+            logger.warn("Bulk product import: chunk starting at row {} failed", firstIndex, e);
+            for (int i = changes.stockChanges.size() - 1; i >= 0; i--) {
+                long[] change = changes.stockChanges.get(i);
+                if (stockReservationEngine.adjust(change[0], (int) change[2], (int) change[1]).isEmpty()) {
+                    // The raised stock has been reserved in the meantime and cannot be taken back. The counter
+                    // is written back so the product row at least agrees with what was handed out.
+                    logger.warn("Bulk product import: stock of product {} could not be set back from {} to {}; "
+                            + "the counter keeps units the failed chunk added", change[0], change[2], change[1]);
+                    stockReservationEngine.resync(change[0]);
+                }
+            }
+            List<BulkProductResult> rejected = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                rejected.add(BulkProductResult.rejected(firstIndex + i, "Chunk could not be stored: "
+                        + e.getMostSpecificCause().getMessage()));
+            }
+            return rejected;
+        }
+
+        // Only now that the chunk is committed may its categories be reused and its rows be published
+        categories.idsByName.putAll(changes.createdCategories);
+        categories.ids.addAll(changes.createdCategories.values());
+        if (!changes.saved.isEmpty()) {
+            productPriceIndex.apply(changes.saved.values(), List.of());
+            productSearchIndex.indexAll(changes.saved.values());
+            changes.updatedIds.forEach(id -> {
+                productCatalogCache.evict(id);
+                stockReservationEngine.resync(id);
+            });
+            productCatalogCache.evict(null);
+            categorySummaryCache.markStale(changes.categoryIds.toArray(Long[]::new));
+        }
+
+        return changes.results;
+    }
+
+    private void fillChunk(int firstIndex, List<Row> rows, Set<Long> requestedIds, Categories categories,
+                           ChunkChanges changes) {
+        Map<Long, Product> existing = requestedIds.isEmpty() ? Map.of()
+                : productRepository.findAllById(requestedIds)
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            int index = firstIndex + i;
+            BulkProductItem item = row.item();
+
+            String error = row.error() != null ? row.error() : validate(item, existing);
+            if (error != null) {
+                changes.results.add(BulkProductResult.rejected(index, error));
+                continue;
+            }
+
+            Long categoryId = item.categoryId();
+            if (categoryId != null && !categories.ids.contains(categoryId)) {
+                changes.results.add(BulkProductResult.rejected(index, "Category id " + categoryId + " not found"));
+                continue;
+            }
+
+            Product product = item.id() == null ? new Product() : existing.get(item.id());
+            int stock = item.stock();
+            if (item.id() != null) {
+                int readStock = product.getStock() == null ? 0 : product.getStock();
+                if (stock != readStock) {
+                    Optional<Integer> available = stockReservationEngine.adjust(item.id(), readStock, stock);
+                    if (available.isEmpty()) {
+                        changes.results.add(BulkProductResult.rejected(index,
+                                "stock " + stock + " is below the units already reserved"));
+                        continue;
+                    }
+                    changes.stockChanges.add(new long[]{item.id(), readStock, stock});
+                    stock = available.get();
+                }
+            }
+
+            if (categoryId == null && item.category() != null && !item.category().isBlank()) {
+                categoryId = resolveCategory(item.category(), categories, changes);
+            }
+            if (item.id() != null && product.getCategory() != null) {
+                changes.categoryIds.add(product.getCategory().getId());
+            }
+            product.setName(item.name());
+            product.setDescription(item.description());
+            product.setPrice(item.price());
+            product.setStock(stock);
+            if (categoryId != null) {
+                product.setCategory(entityManager.getReference(Category.class, categoryId));
+                changes.categoryIds.add(categoryId);
+            }
+
+            if (item.id() == null) {
+                entityManager.persist(product);
+                changes.results.add(BulkProductResult.created(index, product.getId()));
+            } else {
+                changes.updatedIds.add(product.getId());
+                changes.results.add(BulkProductResult.updated(index, product.getId()));
+            }
+            changes.saved.put(product.getId(), new ProductView(product.getId(), product.getName(),
+                    product.getDescription(), product.getPrice(), product.getStock(), null));
+        }
+
+        // A chunk is bounded, so it is flushed in one go and hibernate batches the inserts and updates
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static String validate(BulkProductItem item, Map<Long, Product> existing) {
+        if (item == null) {
+            return "Empty row";
+        }
+        if (item.id() != null && !existing.containsKey(item.id())) {
+            return "Product id " + item.id() + " not found";
+        }
+        if (item.name() == null || item.name().trim().isEmpty()) {
+            return "name is required";
+        }
+        if (item.price() == null || item.price() < 0) {
+            return "price must be zero or more";
+        }
+        if (item.stock() == null || item.stock() < 0) {
+            return "stock must be zero or more";
+        }
+        return null;
+    }
+
+    private Long resolveCategory(String name, Categories categories, ChunkChanges chunkChanges) {
+        String key = categoryKey(name);
+        Long categoryId = categories.idsByName.get(key);
+        if (categoryId == null) {
+            categoryId = chunkChanges.createdCategories.get(key);
+        }
+        if (categoryId == null) {
+            Category category = new Category();
+            category.setNombre(name.trim());
+            entityManager.persist(category);
+            categoryId = category.getId();
+            chunkChanges.createdCategories.put(key, categoryId);
+        }
+        return categoryId;
+    }
+
+    private static String categoryKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
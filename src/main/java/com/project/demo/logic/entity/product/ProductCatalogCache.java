@@ -0,0 +1,118 @@
+package com.project.demo.logic.entity.product;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.demo.logic.entity.metrics.MetricsSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Product snapshots by id plus the full catalog listing, so catalog reads skip Hibernate entirely.
+ * The catalog only changes through the admin endpoints, which evict exactly what they touch; the
+ * expiry is only a safety net. A listing larger than its weight bound is simply not kept.
+ */
+@Component
+public class ProductCatalogCache implements MetricsSource {
+    private static final String LISTING_KEY = "all";
+
+    private final Cache<Long, ProductView> products;
+
+    private final Cache<String, List<ProductView>> listing;
+
+    // Bumped by every eviction, so a listing loaded across one is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductCatalogCache(
+            @Value("${products.cache.max-size:100000}") long maxSize,
+            @Value("${products.cache.listing-max-size:100000}") long listingMaxSize,
+            @Value("${products.cache.expire-after-write:600000}") long expireAfterWrite
+    ) {
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWrite))
+                .recordStats()
+                .build();
+        this.listing = Caffeine.newBuilder()
+                .maximumWeight(listingMaxSize)
+                .weigher((String key, List<ProductView> views) -> views.size())
+                .expireAfterWrite(Duration.ofMillis(expireAfterWrite))
+                .recordStats()
+                .build();
+    }
+
+    public Optional<ProductView> get(Long id, Function<Long, ProductView> loader) {
+        return Optional.ofNullable(products.get(id, loader));
+    }
+
+    /** Snapshots for the given ids, loading all misses with one call. Ids that do not exist are left out. */
+    public Map<Long, ProductView> getAll(Collection<Long> ids, Function<Set<Long>, Map<Long, ProductView>> loader) {
+        return products.getAll(ids, missing -> loader.apply(Set.copyOf(missing)));
+    }
+
+    /**
+     * The full listing. A load that overlaps an eviction may have read the rows before the change, so it is
+     * returned to its caller but neither cached nor used to prime the per-product snapshots.
+     */
+    public List<ProductView> getAll(Supplier<List<ProductView>> loader) {
+        List<ProductView> cached = listing.getIfPresent(LISTING_KEY);
+        if (cached != null) {
+            return cached;
+        }
+
+        long observed = generation.get();
+        List<ProductView> views = List.copyOf(loader.get());
+        if (generation.get() != observed) {
+            return views;
+        }
+        listing.put(LISTING_KEY, views);
+        views.forEach(view -> products.put(view.id(), view));
+        // An eviction between the check and the puts may have run before them; take back what was put
+        if (generation.get() != observed) {
+            listing.asMap().remove(LISTING_KEY, views);
+            views.forEach(view -> products.asMap().remove(view.id(), view));
+        }
+        return views;
+    }
+
+    /** Drops one product and the listing; for creates pass null to drop only the listing. */
+    public void evict(Long id) {
+        generation.incrementAndGet();
+        if (id != null) {
+            products.invalidate(id);
+        }
+        listing.invalidateAll();
+    }
+
+    /** Drops every snapshot embedding the category, after the category was renamed or removed. */
+    public void evictCategory(Long categoryId) {
+        generation.incrementAndGet();
+        products.asMap().values().removeIf(view -> view.category() != null
+                && Objects.equals(view.category().id(), categoryId));
+        listing.invalidateAll();
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "productCatalogCache";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("products", MetricsSource.cacheMetrics(products));
+        metrics.put("listing", MetricsSource.cacheMetrics(listing));
+        return metrics;
+    }
+}
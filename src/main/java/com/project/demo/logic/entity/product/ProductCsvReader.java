@@ -0,0 +1,135 @@
+package com.project.demo.logic.entity.product;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads {@link BulkProductItem}s from CSV one record at a time. The first record names the columns
+ * ({@code id, name, description, price, stock, categoryId, category}, in any order and case); other columns
+ * are ignored. Quoted fields may contain commas, doubled quotes and line breaks, as written by the exports.
+ */
+class ProductCsvReader implements Closeable {
+    private final BufferedReader reader;
+
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    private final StringBuilder field = new StringBuilder();
+
+    ProductCsvReader(InputStream input) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = readRecord();
+        if (header != null) {
+            // Spreadsheet exports often start with a byte order mark
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+            }
+        }
+    }
+
+    /**
+     * Returns the next row, or null at the end of the input. A row with a malformed value is consumed
+     * before the {@link IllegalArgumentException} is thrown, so reading can go on with the next row.
+     */
+    BulkProductItem next() throws IOException {
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        return new BulkProductItem(
+                parseLong(value(record, "id"), "id"),
+                value(record, "name"),
+                value(record, "description"),
+                parseDouble(value(record, "price"), "price"),
+                parseInteger(value(record, "stock"), "stock"),
+                parseLong(value(record, "categoryid"), "categoryId"),
+                value(record, "category"));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String value(List<String> record, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+
+        List<String> record = new ArrayList<>();
+        boolean quoted = false;
+        field.setLength(0);
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        field.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        record.add(field.toString());
+        return record;
+    }
+
+    private static Long parseLong(String value, String column) {
+        try {
+            return value == null ? null : Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + " '" + value + "'");
+        }
+    }
+
+    private static Integer parseInteger(String value, String column) {
+        try {
+            return value == null ? null : Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + " '" + value + "'");
+        }
+    }
+
+    private static Double parseDouble(String value, String column) {
+        try {
+            return value == null ? null : Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + " '" + value + "'");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.project.demo.logic.entity.product;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * JPA callbacks that keep {@link ProductSearchIndex} and {@link ProductPriceIndex} in step with product
+ * writes, resolved lazily and applied after commit like the user index listener.
+ */
+public class ProductIndexListener {
+    private static final ThreadLocal<Boolean> indexingSuspended = ThreadLocal.withInitial(() -> false);
+
+    private final ObjectProvider<ProductSearchIndex> productSearchIndex;
+
+    private final ObjectProvider<ProductPriceIndex> productPriceIndex;
+
+    public ProductIndexListener(
+            ObjectProvider<ProductSearchIndex> productSearchIndex,
+            ObjectProvider<ProductPriceIndex> productPriceIndex
+    ) {
+        this.productSearchIndex = productSearchIndex;
+        this.productPriceIndex = productPriceIndex;
+    }
+
+    /**
+     * Runs the work without per-entity index updates on this thread. The caller applies the changes to the
+     * indexes itself, in bulk, once they are committed.
+     */
+    static <T> T withoutIndexing(Supplier<T> work) {
+        indexingSuspended.set(true);
+        try {
+            return work.get();
+        } finally {
+            indexingSuspended.remove();
+        }
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Product product) {
+        if (indexingSuspended.get()) {
+            return;
+        }
+        // Only the indexed fields are read, now, so the lazy category is left untouched
+        ProductView view = new ProductView(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getStock(), null);
+        afterCommit(() -> {
+            productSearchIndex.ifAvailable(index -> index.index(view));
+            productPriceIndex.ifAvailable(index -> index.index(view));
+        });
+    }
+
+    @PostRemove
+    public void onRemove(Product product) {
+        if (indexingSuspended.get()) {
+            return;
+        }
+        Long id = product.getId();
+        afterCommit(() -> {
+            productSearchIndex.ifAvailable(index -> index.remove(id));
+            productPriceIndex.ifAvailable(index -> index.remove(id));
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,407 @@
+package com.project.demo.logic.entity.product;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Read-optimized price and stock index. Products are kept in parallel arrays sorted by price (with a bitmap
+ * of which of those positions are in stock) and by stock, so range and threshold queries are two binary
+ * searches and return only ids. Readers work on an immutable snapshot behind a volatile field and never lock;
+ * writers build a new snapshot and swap it in, which costs a copy of the arrays per write or per batch.
+ */
+@Order(5)
+@Component
+public class ProductPriceIndex implements ApplicationListener<ContextRefreshedEvent> {
+    private final ProductRepository productRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public ProductPriceIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public record Range(List<Long> ids, int total) {}
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent contextRefreshedEvent) {
+        this.rebuild();
+    }
+
+    public synchronized void rebuild() {
+        Entries entries = new Entries(1024);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ProductView> products = productRepository.streamAllViews()) {
+                products.forEach(product -> entries.add(product.id(), product.price(), product.stock()));
+            }
+        });
+        snapshot = Snapshot.of(entries);
+    }
+
+    /** Ids of the products priced within {@code [minPrice, maxPrice]}, cheapest first. */
+    public Range priceBetween(double minPrice, double maxPrice, boolean inStockOnly, int offset, int limit) {
+        offset = Math.max(0, offset);
+        limit = Math.max(0, limit);
+        Snapshot current = snapshot;
+        int from = lowerBound(current.prices, minPrice);
+        int to = upperBound(current.prices, maxPrice);
+        if (from >= to) {
+            return new Range(List.of(), 0);
+        }
+
+        List<Long> ids = new ArrayList<>(Math.min(limit, to - from));
+        if (!inStockOnly) {
+            for (int i = from + Math.min(offset, to - from); i < to && ids.size() < limit; i++) {
+                ids.add(current.idsByPrice[i]);
+            }
+            return new Range(ids, to - from);
+        }
+
+        int total = 0;
+        for (int i = current.inStockByPrice.nextSetBit(from); i >= 0 && i < to; i = current.inStockByPrice.nextSetBit(i + 1)) {
+            if (total >= offset && ids.size() < limit) {
+                ids.add(current.idsByPrice[i]);
+            }
+            total++;
+        }
+        return new Range(ids, total);
+    }
+
+    /** Ids of the products with more than {@code threshold} units in stock, best stocked first. */
+    public Range stockAbove(int threshold, int offset, int limit) {
+        offset = Math.max(0, offset);
+        limit = Math.max(0, limit);
+        Snapshot current = snapshot;
+        int from = upperBound(current.stocks, threshold);
+        int total = current.stocks.length - from;
+
+        List<Long> ids = new ArrayList<>(Math.max(0, Math.min(limit, total - offset)));
+        for (int i = current.stocks.length - 1 - offset; i >= from && ids.size() < limit; i--) {
+            ids.add(current.idsByStock[i]);
+        }
+        return new Range(ids, total);
+    }
+
+    public int size() {
+        return snapshot.idsByPrice.length;
+    }
+
+    /** Replaces the entries of the given products and drops the removed ids, publishing one new snapshot. */
+    public synchronized void apply(Collection<ProductView> upserts, Collection<Long> removedIds) {
+        // Sorted primitive ids, so the copy below probes them without boxing every entry it looks at
+        long[] changedIds = new long[removedIds.size() + upserts.size()];
+        int changed = 0;
+        for (Long id : removedIds) {
+            changedIds[changed++] = id;
+        }
+        for (ProductView product : upserts) {
+            changedIds[changed++] = product.id();
+        }
+        Arrays.sort(changedIds);
+
+        // Unchanged entries are copied in order, so only the upserts need sorting before a linear merge
+        Snapshot current = snapshot;
+        Entries entries = new Entries(current.idsByPrice.length + upserts.size());
+        for (int i = 0; i < current.idsByPrice.length; i++) {
+            if (Arrays.binarySearch(changedIds, current.idsByPrice[i]) < 0) {
+                entries.addPriced(current.idsByPrice[i], current.prices[i], current.inStockByPrice.get(i));
+            }
+        }
+        for (int i = 0; i < current.idsByStock.length; i++) {
+            if (Arrays.binarySearch(changedIds, current.idsByStock[i]) < 0) {
+                entries.addStocked(current.idsByStock[i], current.stocks[i]);
+            }
+        }
+        entries.markSorted();
+        upserts.forEach(product -> entries.add(product.id(), product.price(), product.stock()));
+
+        snapshot = Snapshot.of(entries);
+    }
+
+    /**
+     * Updates the stock of already indexed products, keeping their current price. Ids the index no longer
+     * holds are ignored, so a flush racing a delete cannot bring the product back.
+     */
+    public synchronized void applyStocks(Map<Long, Integer> stocks) {
+        Snapshot current = snapshot;
+        Map<Long, Double> prices = new HashMap<>();
+        for (int i = 0; i < current.idsByPrice.length; i++) {
+            if (stocks.containsKey(current.idsByPrice[i])) {
+                prices.put(current.idsByPrice[i], current.prices[i]);
+            }
+        }
+        List<ProductView> upserts = new ArrayList<>(stocks.size());
+        for (long id : current.idsByStock) {
+            Integer stock = stocks.get(id);
+            if (stock != null) {
+                upserts.add(new ProductView(id, null, null, prices.get(id), stock, null));
+            }
+        }
+        apply(upserts, List.of());
+    }
+
+    void index(ProductView product) {
+        apply(List.of(product), List.of());
+    }
+
+    void remove(Long id) {
+        apply(List.of(), List.of(id));
+    }
+
+    private static int lowerBound(double[] values, double key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(double[] values, double key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int upperBound(int[] values, int key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /** Immutable sorted arrays; never modified once published. */
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(new double[0], new long[0], new BitSet(), new int[0], new long[0]);
+
+        private final double[] prices;
+        private final long[] idsByPrice;
+        private final BitSet inStockByPrice;
+        private final int[] stocks;
+        private final long[] idsByStock;
+
+        private Snapshot(double[] prices, long[] idsByPrice, BitSet inStockByPrice, int[] stocks, long[] idsByStock) {
+            this.prices = prices;
+            this.idsByPrice = idsByPrice;
+            this.inStockByPrice = inStockByPrice;
+            this.stocks = stocks;
+            this.idsByStock = idsByStock;
+        }
+
+        private static Snapshot of(Entries entries) {
+            long[] priceKeys = Arrays.copyOf(entries.priceKeys, entries.pricedCount);
+            long[] idsByPrice = Arrays.copyOf(entries.pricedIds, entries.pricedCount);
+            long[] inStockFlags = Arrays.copyOf(entries.pricedInStock, entries.pricedCount);
+            sortTail(priceKeys, idsByPrice, inStockFlags, entries.pricedSorted);
+
+            long[] stockKeys = Arrays.copyOf(entries.stockKeys, entries.stockedCount);
+            long[] idsByStock = Arrays.copyOf(entries.stockedIds, entries.stockedCount);
+            sortTail(stockKeys, idsByStock, null, entries.stockedSorted);
+
+            double[] prices = new double[priceKeys.length];
+            BitSet inStockByPrice = new BitSet(prices.length);
+            for (int i = 0; i < priceKeys.length; i++) {
+                prices[i] = fromSortableKey(priceKeys[i]);
+                if (inStockFlags[i] != 0) {
+                    inStockByPrice.set(i);
+                }
+            }
+
+            int[] stocks = new int[stockKeys.length];
+            for (int i = 0; i < stockKeys.length; i++) {
+                stocks[i] = (int) stockKeys[i];
+            }
+
+            return new Snapshot(prices, idsByPrice, inStockByPrice, stocks, idsByStock);
+        }
+
+        /** Sorts {@code [sorted, length)} and merges it into the already sorted prefix. */
+        private static void sortTail(long[] keys, long[] ids, long[] flags, int sorted) {
+            sort(keys, ids, flags, sorted, keys.length - 1);
+            if (sorted == 0 || sorted == keys.length) {
+                return;
+            }
+
+            long[] mergedKeys = new long[keys.length];
+            long[] mergedIds = new long[keys.length];
+            long[] mergedFlags = flags == null ? null : new long[keys.length];
+            int left = 0;
+            int right = sorted;
+            for (int i = 0; i < keys.length; i++) {
+                int from = right >= keys.length
+                        || (left < sorted && compare(keys[left], ids[left], keys[right], ids[right]) <= 0) ? left++ : right++;
+                mergedKeys[i] = keys[from];
+                mergedIds[i] = ids[from];
+                if (flags != null) {
+                    mergedFlags[i] = flags[from];
+                }
+            }
+
+            System.arraycopy(mergedKeys, 0, keys, 0, keys.length);
+            System.arraycopy(mergedIds, 0, ids, 0, ids.length);
+            if (flags != null) {
+                System.arraycopy(mergedFlags, 0, flags, 0, flags.length);
+            }
+        }
+
+        /** Quicksort of parallel arrays by (key, id), without boxing; {@code flags} follows along when present. */
+        private static void sort(long[] keys, long[] ids, long[] flags, int low, int high) {
+            while (high - low > 16) {
+                int middle = (low + high) >>> 1;
+                long pivotKey = keys[middle];
+                long pivotId = ids[middle];
+                int i = low;
+                int j = high;
+                while (i <= j) {
+                    while (compare(keys[i], ids[i], pivotKey, pivotId) < 0) {
+                        i++;
+                    }
+                    while (compare(keys[j], ids[j], pivotKey, pivotId) > 0) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(keys, ids, flags, i++, j--);
+                    }
+                }
+                // Recurse into the smaller half so the stack stays logarithmic
+                if (j - low < high - i) {
+                    sort(keys, ids, flags, low, j);
+                    low = i;
+                } else {
+                    sort(keys, ids, flags, i, high);
+                    high = j;
+                }
+            }
+
+            for (int i = low + 1; i <= high; i++) {
+                for (int j = i; j > low && compare(keys[j], ids[j], keys[j - 1], ids[j - 1]) < 0; j--) {
+                    swap(keys, ids, flags, j, j - 1);
+                }
+            }
+        }
+
+        private static int compare(long key, long id, long otherKey, long otherId) {
+            return key != otherKey ? Long.compare(key, otherKey) : Long.compare(id, otherId);
+        }
+
+        private static void swap(long[] keys, long[] ids, long[] flags, int i, int j) {
+            long key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+            long id = ids[i];
+            ids[i] = ids[j];
+            ids[j] = id;
+            if (flags != null) {
+                long flag = flags[i];
+                flags[i] = flags[j];
+                flags[j] = flag;
+            }
+        }
+
+        private static double fromSortableKey(long key) {
+            return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+        }
+    }
+
+    /** Growable buffers a snapshot is built from; products without a price or stock are left out of that order. */
+    private static final class Entries {
+        private long[] priceKeys;
+        private long[] pricedIds;
+        private long[] pricedInStock;
+        private int pricedCount;
+        private int pricedSorted;
+        private long[] stockKeys;
+        private long[] stockedIds;
+        private int stockedCount;
+        private int stockedSorted;
+
+        private Entries(int capacity) {
+            int initial = Math.max(16, capacity);
+            priceKeys = new long[initial];
+            pricedIds = new long[initial];
+            pricedInStock = new long[initial];
+            stockKeys = new long[initial];
+            stockedIds = new long[initial];
+        }
+
+        private void add(Long id, Double price, Integer stock) {
+            if (id == null) {
+                return;
+            }
+            if (price != null && !price.isNaN()) {
+                addPriced(id, price, stock != null && stock > 0);
+            }
+            if (stock != null) {
+                addStocked(id, stock);
+            }
+        }
+
+        private void addPriced(long id, double price, boolean inStock) {
+            if (pricedCount == pricedIds.length) {
+                priceKeys = Arrays.copyOf(priceKeys, pricedCount * 2);
+                pricedIds = Arrays.copyOf(pricedIds, pricedCount * 2);
+                pricedInStock = Arrays.copyOf(pricedInStock, pricedCount * 2);
+            }
+            priceKeys[pricedCount] = toSortableKey(price);
+            pricedInStock[pricedCount] = inStock ? 1 : 0;
+            pricedIds[pricedCount++] = id;
+        }
+
+        private void addStocked(long id, int stock) {
+            if (stockedCount == stockedIds.length) {
+                stockKeys = Arrays.copyOf(stockKeys, stockedCount * 2);
+                stockedIds = Arrays.copyOf(stockedIds, stockedCount * 2);
+            }
+            stockKeys[stockedCount] = stock;
+            stockedIds[stockedCount++] = id;
+        }
+
+        /** Everything added so far is already in index order. */
+        private void markSorted() {
+            pricedSorted = pricedCount;
+            stockedSorted = stockedCount;
+        }
+
+        // Maps a double onto a long whose signed order matches the numeric order of the double
+        private static long toSortableKey(double value) {
+            long bits = Double.doubleToLongBits(value);
+            return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        }
+    }
+}
@@ -1,13 +1,46 @@
 package com.project.demo.logic.entity.product;
 
 import com.project.demo.logic.entity.category.Category;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductSearchRepository {
+    String VIEW_SELECT = "SELECT new com.project.demo.logic.entity.product.ProductView(p.id, p.name, p.description, " +
+            "p.price, p.stock, c.id, c.nombre, c.descripcion) FROM Product p LEFT JOIN p.category c";
+
+    @Query(VIEW_SELECT + " ORDER BY p.id")
+    List<ProductView> findAllViews();
+
+    @Query(VIEW_SELECT + " WHERE p.id = ?1")
+    Optional<ProductView> findViewById(Long id);
+
+    @Query(VIEW_SELECT + " WHERE p.id IN ?1")
+    List<ProductView> findViewsByIds(Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(VIEW_SELECT)
+    Stream<ProductView> streamAllViews();
+
+    @Query("SELECT DISTINCT p.category.id FROM Product p WHERE p.id IN ?1 AND p.category IS NOT NULL")
+    List<Long> findCategoryIdsByIds(Collection<Long> ids);
+
+    @Query("SELECT COALESCE(p.stock, 0) FROM Product p WHERE p.id = ?1")
+    Optional<Integer> findStockById(Long id);
+
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findWithCategoryById(Long id);
 
     List<Product> findByCategory(Category category);
 
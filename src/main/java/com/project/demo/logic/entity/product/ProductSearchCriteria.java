@@ -0,0 +1,7 @@
+package com.project.demo.logic.entity.product;
+
+/**
+ * Optional filters of the product search; null fields are left out of the query.
+ */
+public record ProductSearchCriteria(Long categoryId, Double minPrice, Double maxPrice, Integer minStock, String name) {
+}
@@ -0,0 +1,67 @@
+package com.project.demo.logic.entity.product;
+
+import com.project.demo.logic.entity.search.TrigramIndex;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * Trigram index over product name and description for the storefront search box. Built from a streamed
+ * scan once the context is up and kept current by {@link ProductIndexListener}. Name matches rank
+ * first because the name is the leading field.
+ */
+@Order(4)
+@Component
+public class ProductSearchIndex implements ApplicationListener<ContextRefreshedEvent> {
+    private final TrigramIndex index = new TrigramIndex();
+
+    private final ProductRepository productRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ProductSearchIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent contextRefreshedEvent) {
+        this.rebuild();
+    }
+
+    public void rebuild() {
+        index.clear();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ProductView> products = productRepository.streamAllViews()) {
+                products.forEach(product -> index.put(product.id(), text(product.name(), product.description())));
+            }
+        });
+    }
+
+    public TrigramIndex.Hits search(String query, int offset, int limit) {
+        return index.search(query, offset, limit, true);
+    }
+
+    void index(ProductView product) {
+        index.put(product.id(), text(product.name(), product.description()));
+    }
+
+    void indexAll(Collection<ProductView> products) {
+        products.forEach(this::index);
+    }
+
+    void remove(Long id) {
+        index.remove(id);
+    }
+
+    private static String text(String name, String description) {
+        return TrigramIndex.joinFields(name, description);
+    }
+}
@@ -0,0 +1,10 @@
+package com.project.demo.logic.entity.product;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+public interface ProductSearchRepository {
+    Slice<ProductView> search(ProductSearchCriteria criteria, Pageable pageable);
+
+    long count(ProductSearchCriteria criteria);
+}
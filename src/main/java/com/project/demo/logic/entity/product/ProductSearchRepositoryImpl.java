@@ -0,0 +1,101 @@
+package com.project.demo.logic.entity.product;
+
+import com.project.demo.logic.entity.category.Category;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the product search as one criteria query holding only the filters that were given, so each
+ * combination gets a plain sargable WHERE clause: category and price ranges are served by
+ * idx_product_category_price, stock thresholds by idx_product_stock.
+ */
+class ProductSearchRepositoryImpl implements ProductSearchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<ProductView> search(ProductSearchCriteria criteria, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductView> query = builder.createQuery(ProductView.class);
+        Root<Product> product = query.from(Product.class);
+        Join<Product, Category> category = product.join("category", JoinType.LEFT);
+
+        query.select(builder.construct(ProductView.class,
+                product.get("id"), product.get("name"), product.get("description"),
+                product.get("price"), product.get("stock"),
+                category.get("id"), category.get("nombre"), category.get("descripcion")));
+        query.where(predicates(builder, product, criteria));
+
+        List<Order> orders = new ArrayList<>();
+        boolean sortedById = false;
+        for (Sort.Order order : pageable.getSort()) {
+            orders.add(order.isAscending() ? builder.asc(product.get(order.getProperty()))
+                    : builder.desc(product.get(order.getProperty())));
+            sortedById |= order.getProperty().equals("id");
+        }
+        // Ties on price or stock need a unique key for stable pages
+        if (!sortedById) {
+            orders.add(builder.asc(product.get("id")));
+        }
+        query.orderBy(orders);
+
+        List<ProductView> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public long count(ProductSearchCriteria criteria) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+
+        query.select(builder.count(product));
+        query.where(predicates(builder, product, criteria));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Predicate[] predicates(CriteriaBuilder builder, Root<Product> product, ProductSearchCriteria criteria) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (criteria.categoryId() != null) {
+            // Compares the foreign key column, no join needed
+            predicates.add(builder.equal(product.get("category").get("id"), criteria.categoryId()));
+        }
+        if (criteria.minPrice() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(product.get("price"), criteria.minPrice()));
+        }
+        if (criteria.maxPrice() != null) {
+            predicates.add(builder.lessThanOrEqualTo(product.get("price"), criteria.maxPrice()));
+        }
+        if (criteria.minStock() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(product.get("stock"), criteria.minStock()));
+        }
+        if (criteria.name() != null && !criteria.name().isBlank()) {
+            String pattern = "%" + criteria.name().trim().toLowerCase(Locale.ROOT)
+                    .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            predicates.add(builder.like(builder.lower(product.get("name")), pattern, '\\'));
+        }
+
+        return predicates.toArray(Predicate[]::new);
+    }
+}
@@ -0,0 +1,19 @@
+package com.project.demo.logic.entity.product;
+
+import com.project.demo.logic.entity.category.CategoryView;
+
+/**
+ * Immutable product snapshot, serialized the same way as {@link Product}, safe to cache and share between requests.
+ */
+public record ProductView(Long id, String name, String description, Double price, Integer stock, CategoryView category) {
+    public ProductView(Long id, String name, String description, Double price, Integer stock,
+                       Long categoryId, String categoryNombre, String categoryDescripcion) {
+        this(id, name, description, price, stock,
+                categoryId == null ? null : new CategoryView(categoryId, categoryNombre, categoryDescripcion));
+    }
+
+    public static ProductView from(Product product) {
+        return new ProductView(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getStock(), CategoryView.from(product.getCategory()));
+    }
+}
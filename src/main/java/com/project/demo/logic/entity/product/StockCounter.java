@@ -0,0 +1,135 @@
+package com.project.demo.logic.entity.product;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Available units of one product, never allowed below zero. Starts as a single cell; once compare-and-set
+ * retries show the product is hot, the units are spread over several stripes so concurrent buyers mostly
+ * touch different cells. Every change is a CAS that keeps its cell non-negative, so units can only move,
+ * never be created or oversold.
+ */
+class StockCounter {
+    private final int maxStripes;
+
+    private final int inflateThreshold;
+
+    private final AtomicInteger contention = new AtomicInteger();
+
+    private volatile AtomicIntegerArray cells;
+
+    StockCounter(int stock, int maxStripes, int inflateThreshold) {
+        this.maxStripes = maxStripes;
+        this.inflateThreshold = inflateThreshold;
+        this.cells = new AtomicIntegerArray(1);
+        this.cells.set(0, Math.max(0, stock));
+    }
+
+    /** Takes the quantity if that many units are available, otherwise takes nothing. */
+    boolean tryTake(int quantity) {
+        AtomicIntegerArray current = cells;
+        int stripes = current.length();
+        int home = stripes == 1 ? 0 : ThreadLocalRandom.current().nextInt(stripes);
+
+        for (int n = 0; n < stripes; n++) {
+            int stripe = (home + n) % stripes;
+            int available;
+            while ((available = current.get(stripe)) >= quantity) {
+                if (current.compareAndSet(stripe, available, available - quantity)) {
+                    return true;
+                }
+                onContention();
+            }
+        }
+
+        if (stripes == 1) {
+            return false;
+        }
+
+        // No single stripe holds enough: gather from several and hand everything back on a shortfall
+        int[] takenByStripe = new int[stripes];
+        int taken = 0;
+        for (int n = 0; n < stripes && taken < quantity; n++) {
+            int stripe = (home + n) % stripes;
+            int available;
+            while ((available = current.get(stripe)) > 0 && taken < quantity) {
+                int take = Math.min(available, quantity - taken);
+                if (current.compareAndSet(stripe, available, available - take)) {
+                    takenByStripe[stripe] += take;
+                    taken += take;
+                }
+            }
+        }
+
+        if (taken == quantity) {
+            return true;
+        }
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            if (takenByStripe[stripe] > 0) {
+                current.getAndAdd(stripe, takenByStripe[stripe]);
+            }
+        }
+        migrateIfReplaced(current);
+        return false;
+    }
+
+    void give(int quantity) {
+        AtomicIntegerArray current = cells;
+        current.getAndAdd(current.length() == 1 ? 0 : ThreadLocalRandom.current().nextInt(current.length()), quantity);
+        migrateIfReplaced(current);
+    }
+
+    int available() {
+        AtomicIntegerArray current = cells;
+        int available = 0;
+        for (int stripe = 0; stripe < current.length(); stripe++) {
+            available += current.get(stripe);
+        }
+        return available;
+    }
+
+    int stripes() {
+        return cells.length();
+    }
+
+    private void onContention() {
+        if (maxStripes > 1 && cells.length() == 1 && contention.incrementAndGet() >= inflateThreshold) {
+            inflate();
+        }
+    }
+
+    private synchronized void inflate() {
+        AtomicIntegerArray single = cells;
+        if (single.length() > 1) {
+            return;
+        }
+        cells = new AtomicIntegerArray(maxStripes);
+        migrateIfReplaced(single);
+    }
+
+    /**
+     * Moves whatever is left in a replaced cell array into the live one. Threads that still hold the old
+     * array call this after adding to it, so no unit stays behind.
+     */
+    private void migrateIfReplaced(AtomicIntegerArray previous) {
+        AtomicIntegerArray current = cells;
+        if (current == previous) {
+            return;
+        }
+        for (int stripe = 0; stripe < previous.length(); stripe++) {
+            int units = previous.getAndSet(stripe, 0);
+            if (units > 0) {
+                // Spread the units evenly so every stripe starts with a share
+                int share = units / current.length();
+                int remainder = units % current.length();
+                for (int target = 0; target < current.length(); target++) {
+                    int amount = share + (target < remainder ? 1 : 0);
+                    if (amount > 0) {
+                        current.getAndAdd(target, amount);
+                    }
+                }
+            }
+        }
+    }
+}
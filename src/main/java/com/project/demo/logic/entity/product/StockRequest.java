@@ -0,0 +1,23 @@
+package com.project.demo.logic.entity.product;
+
+public class StockRequest {
+    private Integer quantity;
+
+    private String reservationId;
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public String getReservationId() {
+        return reservationId;
+    }
+
+    public void setReservationId(String reservationId) {
+        this.reservationId = reservationId;
+    }
+}
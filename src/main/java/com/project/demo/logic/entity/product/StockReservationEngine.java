@@ -0,0 +1,285 @@
+package com.project.demo.logic.entity.product;
+
+import com.project.demo.logic.entity.category.CategorySummaryCache;
+import com.project.demo.logic.entity.metrics.MetricsSource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reserves and releases product stock against in-memory {@link StockCounter}s instead of row locks. A
+ * counter is loaded from the database on first use; every change marks the product dirty and a write-behind
+ * job stores the dirty products' stock in one JDBC batch, once more on shutdown. A reservation is either
+ * confirmed, which makes its units a permanent decrease of the stock, or released, which hands them back.
+ * Reservations only live in memory until then: an unconfirmed one expires after a TTL, and the ones still
+ * outstanding at shutdown hand their units back before the last flush, since nobody could confirm or release
+ * them after a restart.
+ */
+@Component
+public class StockReservationEngine implements MetricsSource {
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationEngine.class);
+
+    private final ProductRepository productRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ProductCatalogCache productCatalogCache;
+
+    private final ProductPriceIndex productPriceIndex;
+
+    private final CategorySummaryCache categorySummaryCache;
+
+    private final Duration reservationTtl;
+
+    private final int maxStripes;
+
+    private final int inflateThreshold;
+
+    private final Map<Long, StockCounter> counters = new ConcurrentHashMap<>();
+
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    private final Set<Long> dirtyIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong reserved = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final AtomicLong confirmed = new AtomicLong();
+
+    private final AtomicLong expired = new AtomicLong();
+
+    private final AtomicLong flushedRows = new AtomicLong();
+
+    public StockReservationEngine(
+            ProductRepository productRepository,
+            JdbcTemplate jdbcTemplate,
+            ProductCatalogCache productCatalogCache,
+            ProductPriceIndex productPriceIndex,
+            CategorySummaryCache categorySummaryCache,
+            @Value("${products.stock.reservation-ttl:900000}") long reservationTtl,
+            @Value("${products.stock.stripes:8}") int maxStripes,
+            @Value("${products.stock.inflate-threshold:64}") int inflateThreshold
+    ) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.productCatalogCache = productCatalogCache;
+        this.productPriceIndex = productPriceIndex;
+        this.categorySummaryCache = categorySummaryCache;
+        this.reservationTtl = Duration.ofMillis(reservationTtl);
+        this.maxStripes = maxStripes;
+        this.inflateThreshold = inflateThreshold;
+    }
+
+    public record Reservation(String id, Long productId, int quantity, Instant expiresAt) {}
+
+    public enum Outcome { RESERVED, INSUFFICIENT_STOCK, UNKNOWN_PRODUCT }
+
+    public record Result(Outcome outcome, Reservation reservation, int available) {}
+
+    public Result reserve(Long productId, int quantity) {
+        StockCounter counter = counter(productId);
+        if (counter == null) {
+            return new Result(Outcome.UNKNOWN_PRODUCT, null, 0);
+        }
+
+        if (!counter.tryTake(quantity)) {
+            rejected.incrementAndGet();
+            return new Result(Outcome.INSUFFICIENT_STOCK, null, counter.available());
+        }
+
+        dirtyIds.add(productId);
+        reserved.incrementAndGet();
+        Reservation reservation = new Reservation(UUID.randomUUID().toString(), productId, quantity,
+                Instant.now().plus(reservationTtl));
+        reservations.put(reservation.id(), reservation);
+        return new Result(Outcome.RESERVED, reservation, counter.available());
+    }
+
+    /**
+     * Hands the units of a reservation back; empty when the reservation is unknown, already released or
+     * belongs to another product.
+     */
+    public Optional<Reservation> release(Long productId, String reservationId) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null || !reservation.productId().equals(productId)
+                || !reservations.remove(reservationId, reservation)) {
+            return Optional.empty();
+        }
+
+        giveBack(reservation);
+        return Optional.of(reservation);
+    }
+
+    /**
+     * Makes the units of a reservation a permanent decrease of the stock: the reservation is dropped without
+     * handing anything back, so it no longer expires and is not returned at shutdown. Empty when the
+     * reservation is unknown, already confirmed, released or expired, or belongs to another product.
+     */
+    public Optional<Reservation> confirm(Long productId, String reservationId) {
+        Reservation reservation = reservations.get(reservationId);
+        if (reservation == null || !reservation.productId().equals(productId)
+                || !reservations.remove(reservationId, reservation)) {
+            return Optional.empty();
+        }
+
+        confirmed.incrementAndGet();
+        return Optional.of(reservation);
+    }
+
+    /** Releases the unconfirmed reservations whose TTL has passed. */
+    @Scheduled(fixedDelayString = "${products.stock.expiry-interval:10000}")
+    public void expireReservations() {
+        Instant now = Instant.now();
+        for (Reservation reservation : reservations.values()) {
+            if (reservation.expiresAt().isBefore(now) && reservations.remove(reservation.id(), reservation)) {
+                giveBack(reservation);
+                expired.incrementAndGet();
+            }
+        }
+    }
+
+    public Optional<Integer> available(Long productId) {
+        StockCounter counter = counter(productId);
+        return counter == null ? Optional.empty() : Optional.of(counter.available());
+    }
+
+    /**
+     * Applies a stock edit from {@code readStock}, the stock the caller loaded with the product, to
+     * {@code newStock} as a change of the difference to the live counter, so units reserved since the product
+     * was read stay reserved. A product without a counter yet gets one starting at {@code readStock}. Returns
+     * the units available afterwards; empty when fewer units than a decrease asks for are left.
+     */
+    public Optional<Integer> adjust(Long productId, int readStock, int newStock) {
+        StockCounter counter = counters.computeIfAbsent(productId,
+                id -> new StockCounter(readStock, maxStripes, inflateThreshold));
+        int delta = newStock - readStock;
+        if (delta > 0) {
+            counter.give(delta);
+        } else if (delta < 0 && !counter.tryTake(-delta)) {
+            return Optional.empty();
+        }
+        dirtyIds.add(productId);
+        return Optional.of(counter.available());
+    }
+
+    /** Makes the next flush write the counter back, after an entity save may have stored an older stock. */
+    public void resync(Long productId) {
+        if (counters.containsKey(productId)) {
+            dirtyIds.add(productId);
+        }
+    }
+
+    public void forget(Long productId) {
+        counters.remove(productId);
+        dirtyIds.remove(productId);
+        reservations.values().removeIf(reservation -> reservation.productId().equals(productId));
+    }
+
+    @Scheduled(fixedDelayString = "${products.stock.flush-interval:1000}")
+    public void flush() {
+        if (dirtyIds.isEmpty()) {
+            return;
+        }
+
+        // An id is unmarked before its value is read, so a change racing the read marks it again
+        List<Object[]> rows = new ArrayList<>();
+        Map<Long, Integer> stocks = new HashMap<>();
+        for (Long productId : List.copyOf(dirtyIds)) {
+            dirtyIds.remove(productId);
+            StockCounter counter = counters.get(productId);
+            if (counter != null) {
+                int available = counter.available();
+                rows.add(new Object[]{available, productId});
+                stocks.put(productId, available);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate("UPDATE product SET stock = ? WHERE id = ?", rows);
+        } catch (RuntimeException e) {
+            dirtyIds.addAll(stocks.keySet());
+            throw e;
+        }
+
+        flushedRows.addAndGet(rows.size());
+        productPriceIndex.applyStocks(stocks);
+        stocks.keySet().forEach(productCatalogCache::evict);
+        categorySummaryCache.markStale(productRepository.findCategoryIdsByIds(stocks.keySet()).toArray(Long[]::new));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        int outstanding = 0;
+        for (Reservation reservation : reservations.values()) {
+            if (reservations.remove(reservation.id(), reservation)) {
+                giveBack(reservation);
+                outstanding++;
+            }
+        }
+        flush();
+        logger.info("Stock reservation engine stopped, {} outstanding reservations handed back", outstanding);
+    }
+
+    private void giveBack(Reservation reservation) {
+        StockCounter counter = counters.get(reservation.productId());
+        if (counter != null) {
+            counter.give(reservation.quantity());
+            dirtyIds.add(reservation.productId());
+        }
+    }
+
+    private StockCounter counter(Long productId) {
+        StockCounter counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+
+        Optional<Integer> stock = productRepository.findStockById(productId);
+        if (stock.isEmpty()) {
+            return null;
+        }
+        // Another thread may have loaded the same product meanwhile; the first counter wins
+        return counters.computeIfAbsent(productId, id -> new StockCounter(stock.get(), maxStripes, inflateThreshold));
+    }
+
+    @Override
+    public String getMetricsName() {
+        return "stockReservations";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("counters", counters.size());
+        metrics.put("stripedCounters", counters.values().stream().filter(counter -> counter.stripes() > 1).count());
+        metrics.put("outstandingReservations", reservations.size());
+        metrics.put("reserved", reserved.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("confirmed", confirmed.get());
+        metrics.put("expired", expired.get());
+        metrics.put("pendingFlush", dirtyIds.size());
+        metrics.put("flushedRows", flushedRows.get());
+        return metrics;
+    }
+}
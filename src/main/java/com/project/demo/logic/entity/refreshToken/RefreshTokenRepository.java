@@ -0,0 +1,30 @@
+package com.project.demo.logic.entity.refreshToken;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.used = true, t.usedAt = ?2 WHERE t.id = ?1 AND t.used = false")
+    int markUsed(Long id, Date usedAt);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.familyId = ?1")
+    int deleteByFamilyId(String familyId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.userId = ?1")
+    int deleteByUserId(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < ?1")
+    int deleteExpired(Date now);
+}
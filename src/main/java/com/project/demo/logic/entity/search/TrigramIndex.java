@@ -0,0 +1,473 @@
+package com.project.demo.logic.entity.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted trigram index for substring search over short texts keyed by entity id.
+ * <p>
+ * Every document gets a dense int slot, and each trigram maps to a sorted {@code int[]} posting list of slots,
+ * so a query only walks the posting lists of its own trigrams instead of the whole table. Texts are
+ * lower-cased and stripped of accents before indexing and querying. Reads share a lock, writes are exclusive.
+ */
+public class TrigramIndex {
+    /** Separates the fields of a multi-field document; never part of a query. */
+    public static final char FIELD_SEPARATOR = '\u001f';
+
+    /** Shorter queries have no trigram to look up and would have to scan every document, so they match nothing. */
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    // Matches are {rank, text length, id}: higher rank first, then shorter texts, then lower ids
+    private static final Comparator<long[]> BEST_FIRST = (a, b) -> a[0] != b[0] ? Long.compare(b[0], a[0])
+            : a[1] != b[1] ? Long.compare(a[1], b[1])
+            : Long.compare(a[2], b[2]);
+
+    /** Most texts a fuzzy search compares against the query; past that the total is a lower bound. */
+    static final int MAX_FUZZY_CANDIDATES = 10_000;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+
+    private final Map<Long, Postings> postingsByTrigram = new HashMap<>();
+
+    private long[] idsBySlot = new long[1024];
+
+    private String[] textsBySlot = new String[1024];
+
+    private int[] freeSlots = new int[64];
+
+    private int freeSlotCount;
+
+    private int slotCount;
+
+    public record Hits(List<Long> ids, int total) {}
+
+    public static String joinFields(String... fields) {
+        StringBuilder builder = new StringBuilder();
+        for (String field : fields) {
+            if (!builder.isEmpty()) {
+                builder.append(FIELD_SEPARATOR);
+            }
+            if (field != null) {
+                builder.append(field);
+            }
+        }
+        return builder.toString();
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    public void put(long id, String text) {
+        String normalized = normalize(text);
+
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotsById.get(id);
+            if (slot != null) {
+                if (normalized.equals(textsBySlot[slot])) {
+                    return;
+                }
+                unlink(slot);
+            } else {
+                slot = allocateSlot(id);
+            }
+
+            textsBySlot[slot] = normalized;
+            for (long trigram : trigrams(normalized)) {
+                postingsByTrigram.computeIfAbsent(trigram, ignored -> new Postings()).add(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotsById.remove(id);
+            if (slot == null) {
+                return;
+            }
+            unlink(slot);
+            textsBySlot[slot] = null;
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+            }
+            freeSlots[freeSlotCount++] = slot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            slotsById.clear();
+            postingsByTrigram.clear();
+            Arrays.fill(textsBySlot, 0, slotCount, null);
+            slotCount = 0;
+            freeSlotCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the documents containing the query as a substring, best matches first: a match at the start of a
+     * field ranks above one at the start of a word, which ranks above one inside a word; shorter documents win ties.
+     * Queries shorter than {@link #MIN_QUERY_LENGTH} match nothing. Only the best {@code offset + limit} matches
+     * are kept while counting the rest, so a page costs no sort of the whole result.
+     */
+    public Hits search(String query, int offset, int limit) {
+        String normalized = normalize(query).trim();
+        if (normalized.length() < MIN_QUERY_LENGTH) {
+            return new Hits(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            TopHits top = new TopHits(offset, limit);
+            for (int slot : candidates(normalized)) {
+                String text = textsBySlot[slot];
+                int position = text == null ? -1 : text.indexOf(normalized);
+                if (position >= 0) {
+                    top.offer(rank(text, position), text.length(), idsBySlot[slot]);
+                }
+            }
+            return top.page();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Like {@link #search(String, int, int)}, but when nothing contains the query and {@code fuzzy} is set,
+     * falls back to {@link #searchSimilar(String, int, int)} so a typo still finds something.
+     */
+    public Hits search(String query, int offset, int limit, boolean fuzzy) {
+        Hits hits = search(query, offset, limit);
+        return !fuzzy || hits.total() > 0 ? hits : searchSimilar(query, offset, limit);
+    }
+
+    /**
+     * Documents with a stretch starting at a word boundary within one edit of the query (two for queries over
+     * eight characters), fewest edits first. Queries of four characters or less are too short to match loosely.
+     * Candidates must share at least as many trigrams as that many edits can leave intact (an edit touches at
+     * most four trigrams). Such a document is in at least one of the shortest {@code lists - minShared + 1}
+     * posting lists, so only those are merged and the longer lists are probed by binary search; at most
+     * {@link #MAX_FUZZY_CANDIDATES} texts are compared.
+     */
+    public Hits searchSimilar(String query, int offset, int limit) {
+        String normalized = normalize(query).trim();
+        int maxEdits = normalized.length() <= 4 ? 0 : normalized.length() <= 8 ? 1 : 2;
+        if (maxEdits == 0) {
+            return new Hits(List.of(), 0);
+        }
+
+        long[] queryTrigrams = trigrams(normalized);
+        int minShared = Math.max(1, queryTrigrams.length - 4 * maxEdits);
+
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[queryTrigrams.length];
+            int listCount = 0;
+            for (long trigram : queryTrigrams) {
+                Postings postings = postingsByTrigram.get(trigram);
+                if (postings != null) {
+                    lists[listCount++] = postings;
+                }
+            }
+            if (listCount < minShared) {
+                return new Hits(List.of(), 0);
+            }
+            Arrays.sort(lists, 0, listCount, (a, b) -> Integer.compare(a.size, b.size));
+            int merged = listCount - minShared + 1;
+
+            int[] positions = new int[listCount];
+            TopHits top = new TopHits(offset, limit);
+            int compared = 0;
+
+            while (compared < MAX_FUZZY_CANDIDATES) {
+                int slot = Integer.MAX_VALUE;
+                for (int i = 0; i < merged; i++) {
+                    if (positions[i] < lists[i].size && lists[i].slots[positions[i]] < slot) {
+                        slot = lists[i].slots[positions[i]];
+                    }
+                }
+                if (slot == Integer.MAX_VALUE) {
+                    break;
+                }
+
+                int shared = 0;
+                for (int i = 0; i < merged; i++) {
+                    if (positions[i] < lists[i].size && lists[i].slots[positions[i]] == slot) {
+                        shared++;
+                        positions[i]++;
+                    }
+                }
+                // Probe the long lists only while minShared is still short of being reached and still reachable
+                for (int i = merged; i < listCount && shared < minShared && shared + listCount - i >= minShared; i++) {
+                    int position = Arrays.binarySearch(lists[i].slots, positions[i], lists[i].size, slot);
+                    if (position >= 0) {
+                        shared++;
+                        positions[i] = position + 1;
+                    } else {
+                        positions[i] = -position - 1;
+                    }
+                }
+
+                String text = textsBySlot[slot];
+                if (shared >= minShared && text != null) {
+                    compared++;
+                    int edits = closestDistance(text, normalized, maxEdits);
+                    if (edits <= maxEdits) {
+                        top.offer(-edits, text.length(), idsBySlot[slot]);
+                    }
+                }
+            }
+
+            return top.page();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int closestDistance(String text, String query, int maxEdits) {
+        int best = Integer.MAX_VALUE;
+        for (int start = 0; start < text.length() && best > 0; start++) {
+            if (start > 0 && Character.isLetterOrDigit(text.charAt(start - 1))) {
+                continue;
+            }
+            for (int length = query.length() - maxEdits; length <= query.length() + maxEdits; length++) {
+                if (start + length <= text.length()) {
+                    best = Math.min(best, editDistance(text, start, length, query));
+                }
+            }
+        }
+        return best;
+    }
+
+    /** Optimal string alignment distance between {@code text[start, start + length)} and the query. */
+    private static int editDistance(String text, int start, int length, String query) {
+        int[] beforePrevious = new int[query.length() + 1];
+        int[] previous = new int[query.length() + 1];
+        int[] current = new int[query.length() + 1];
+        for (int j = 0; j <= query.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= length; i++) {
+            char a = text.charAt(start + i - 1);
+            current[0] = i;
+            for (int j = 1; j <= query.length(); j++) {
+                char b = query.charAt(j - 1);
+                int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + (a == b ? 0 : 1));
+                if (i > 1 && j > 1 && a == query.charAt(j - 2) && text.charAt(start + i - 2) == b) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[query.length()];
+    }
+
+    private int[] candidates(String normalized) {
+        long[] queryTrigrams = trigrams(normalized);
+        Postings[] lists = new Postings[queryTrigrams.length];
+
+        for (int i = 0; i < queryTrigrams.length; i++) {
+            lists[i] = postingsByTrigram.get(queryTrigrams[i]);
+            if (lists[i] == null) {
+                return new int[0];
+            }
+        }
+
+        // Intersect starting from the shortest list so the working set only shrinks
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        int[] result = Arrays.copyOf(lists[0].slots, lists[0].size);
+        int resultSize = result.length;
+
+        for (int i = 1; i < lists.length && resultSize > 0; i++) {
+            resultSize = intersect(result, resultSize, lists[i]);
+        }
+        return Arrays.copyOf(result, resultSize);
+    }
+
+    private static int intersect(int[] result, int resultSize, Postings postings) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < resultSize; i++) {
+            int position = Arrays.binarySearch(postings.slots, from, postings.size, result[i]);
+            if (position >= 0) {
+                result[kept++] = result[i];
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+        }
+        return kept;
+    }
+
+    private static long rank(String text, int position) {
+        if (position == 0 || text.charAt(position - 1) == FIELD_SEPARATOR) {
+            return 2;
+        }
+        return Character.isLetterOrDigit(text.charAt(position - 1)) ? 0 : 1;
+    }
+
+    private int allocateSlot(long id) {
+        int slot;
+        if (freeSlotCount > 0) {
+            slot = freeSlots[--freeSlotCount];
+        } else {
+            if (slotCount == idsBySlot.length) {
+                idsBySlot = Arrays.copyOf(idsBySlot, slotCount * 2);
+                textsBySlot = Arrays.copyOf(textsBySlot, slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+        idsBySlot[slot] = id;
+        slotsById.put(id, slot);
+        return slot;
+    }
+
+    private void unlink(int slot) {
+        for (long trigram : trigrams(textsBySlot[slot])) {
+            Postings postings = postingsByTrigram.get(trigram);
+            if (postings != null && postings.remove(slot) && postings.size == 0) {
+                postingsByTrigram.remove(trigram);
+            }
+        }
+    }
+
+    static long[] trigrams(String text) {
+        if (text == null || text.length() < 3) {
+            return new long[0];
+        }
+        long[] trigrams = new long[text.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(trigrams);
+
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[distinct - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    /**
+     * Counts every match but keeps only the best {@code offset + limit} in a heap whose head is the worst kept
+     * match, so a match that cannot make the page is dropped without allocating.
+     */
+    private static final class TopHits {
+        private final int offset;
+        private final int capacity;
+        private final PriorityQueue<long[]> worstFirst;
+        private int total;
+
+        private TopHits(int offset, int limit) {
+            this.offset = Math.max(0, offset);
+            this.capacity = (int) Math.min(Integer.MAX_VALUE - 8, (long) this.offset + Math.max(0, limit));
+            this.worstFirst = new PriorityQueue<>(Math.max(1, Math.min(capacity, 1024)), BEST_FIRST.reversed());
+        }
+
+        private void offer(long rank, long length, long id) {
+            total++;
+            if (capacity == 0) {
+                return;
+            }
+            if (worstFirst.size() == capacity) {
+                long[] worst = worstFirst.peek();
+                if (worst[0] > rank || (worst[0] == rank && (worst[1] < length || (worst[1] == length && worst[2] < id)))) {
+                    return;
+                }
+                worstFirst.poll();
+            }
+            worstFirst.add(new long[]{rank, length, id});
+        }
+
+        private Hits page() {
+            long[][] kept = worstFirst.toArray(new long[0][]);
+            Arrays.sort(kept, BEST_FIRST);
+            List<Long> ids = new ArrayList<>(Math.max(0, kept.length - offset));
+            for (int i = offset; i < kept.length; i++) {
+                ids.add(kept[i][2]);
+            }
+            return new Hits(ids, total);
+        }
+    }
+
+    /** Sorted, duplicate-free list of slots backed by a growable {@code int[]}. */
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private int size;
+
+        private void add(int slot) {
+            if (size > 0 && slots[size - 1] < slot) {
+                ensureCapacity();
+                slots[size++] = slot;
+                return;
+            }
+            int position = Arrays.binarySearch(slots, 0, size, slot);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            ensureCapacity();
+            System.arraycopy(slots, position, slots, position + 1, size - position);
+            slots[position] = slot;
+            size++;
+        }
+
+        private boolean remove(int slot) {
+            int position = Arrays.binarySearch(slots, 0, size, slot);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        private void ensureCapacity() {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.project.demo.logic.entity.sequence;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves every pooled id sequence past the highest id already stored in its table. Tables created while the
+ * entities still used IDENTITY ids would otherwise get ids handed out again from the start of a fresh sequence.
+ * MariaDB's SETVAL never moves a sequence backwards, so this is a no-op once the sequences are ahead.
+ */
+@Order(0)
+@Component
+public class SequenceAligner implements ApplicationListener<ContextRefreshedEvent> {
+    private static final Map<String, String> SEQUENCES_BY_TABLE = Map.of(
+            "`user`", "user_seq",
+            "`order`", "order_seq",
+            "product", "product_seq",
+            "category", "category_seq",
+            "game", "game_seq",
+            "movies", "movies_seq",
+            "preference_list", "preference_list_seq",
+            "refresh_token", "refresh_token_seq"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceAligner(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent contextRefreshedEvent) {
+        this.alignSequences();
+    }
+
+    private void alignSequences() {
+        SEQUENCES_BY_TABLE.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            if (maxId != null && maxId > 0) {
+                jdbcTemplate.queryForObject("SELECT SETVAL(" + sequence + ", " + maxId + ")", Long.class);
+            }
+        });
+    }
+}
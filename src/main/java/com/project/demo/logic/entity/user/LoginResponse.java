@@ -7,6 +7,8 @@ public class LoginResponse {
 
     private long expiresIn;
 
+    private String refreshToken;
+
     public String getToken() {
         return token;
     }
@@ -23,6 +25,14 @@ public class LoginResponse {
         this.expiresIn = expiresIn;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public User getAuthUser() {
         return authUser;
     }
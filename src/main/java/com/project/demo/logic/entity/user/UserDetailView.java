@@ -0,0 +1,30 @@
+package com.project.demo.logic.entity.user;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.project.demo.logic.entity.order.OrderView;
+import com.project.demo.logic.entity.rol.RoleEnum;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Single user as returned by /users/{userId}, /users/me and the user write endpoints. Orders are only filled
+ * in when explicitly requested.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserDetailView(Long id, String name, String lastname, String email, RoleEnum role,
+                             Date createdAt, Date updatedAt, List<OrderView> orders) {
+    public UserDetailView(Long id, String name, String lastname, String email, RoleEnum role,
+                          Date createdAt, Date updatedAt) {
+        this(id, name, lastname, email, role, createdAt, updatedAt, null);
+    }
+
+    public static UserDetailView of(User user) {
+        return new UserDetailView(user.getId(), user.getName(), user.getLastname(), user.getEmail(),
+                user.getRole() == null ? null : user.getRole().getName(), user.getCreatedAt(), user.getUpdatedAt());
+    }
+
+    public UserDetailView withOrders(List<OrderView> orders) {
+        return new UserDetailView(id, name, lastname, email, role, createdAt, updatedAt, orders);
+    }
+}
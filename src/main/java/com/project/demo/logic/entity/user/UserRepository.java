@@ -1,10 +1,21 @@
 package com.project.demo.logic.entity.user;
 
+import com.project.demo.logic.entity.auth.UserPrincipal;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface UserRepository extends JpaRepository<User, Long>  {
     @Query("SELECT u FROM User u WHERE LOWER(u.name) LIKE %?1%")
@@ -16,4 +27,45 @@ public interface UserRepository extends JpaRepository<User, Long>  {
     Optional<User> findByLastname(String lastname);
 
     Optional<User> findByEmail(String email);
+
+    @Query("SELECT new com.project.demo.logic.entity.auth.UserPrincipal(u.id, u.email, u.password, r.name) " +
+            "FROM User u JOIN u.role r WHERE u.email = ?1")
+    Optional<UserPrincipal> findPrincipalByEmail(String email);
+
+    @Query("SELECT new com.project.demo.logic.entity.auth.UserPrincipal(u.id, u.email, u.password, r.name) " +
+            "FROM User u JOIN u.role r WHERE u.id = ?1")
+    Optional<UserPrincipal> findPrincipalById(Long id);
+
+    @Query("SELECT new com.project.demo.logic.entity.user.UserView(u.id, u.name, u.lastname, u.email, r.name) " +
+            "FROM User u JOIN u.role r")
+    Slice<UserView> findAllViews(Pageable pageable);
+
+    @Query("SELECT new com.project.demo.logic.entity.user.UserView(u.id, u.name, u.lastname, u.email, r.name) " +
+            "FROM User u JOIN u.role r WHERE u.id IN ?1")
+    List<UserView> findViewsByIds(Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.project.demo.logic.entity.user.UserView(u.id, u.name, u.lastname, u.email, r.name) " +
+            "FROM User u JOIN u.role r")
+    Stream<UserView> streamAllViews();
+
+    @Query("SELECT new com.project.demo.logic.entity.user.UserDetailView(u.id, u.name, u.lastname, u.email, r.name, " +
+            "u.createdAt, u.updatedAt) FROM User u JOIN u.role r WHERE u.id = ?1")
+    Optional<UserDetailView> findDetailById(Long id);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN ?1")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = ?1")
+    Optional<Integer> findTokenVersionById(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = ?1")
+    int incrementTokenVersion(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = ?2 WHERE u.id = ?1")
+    int updatePassword(Long id, String password);
 }
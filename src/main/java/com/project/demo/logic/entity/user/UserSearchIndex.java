@@ -0,0 +1,61 @@
+package com.project.demo.logic.entity.user;
+
+import com.project.demo.logic.entity.search.TrigramIndex;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * Trigram index over user name, lastname and email. Built from a streamed scan once the context is up
+ * and kept current by {@link UserSearchIndexListener} on every committed insert, update or removal of a user.
+ */
+@Order(3)
+@Component
+public class UserSearchIndex implements ApplicationListener<ContextRefreshedEvent> {
+    private final TrigramIndex index = new TrigramIndex();
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public UserSearchIndex(UserRepository userRepository, PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent contextRefreshedEvent) {
+        this.rebuild();
+    }
+
+    public void rebuild() {
+        index.clear();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<UserView> users = userRepository.streamAllViews()) {
+                users.forEach(user -> index.put(user.id(), text(user.name(), user.lastname(), user.email())));
+            }
+        });
+    }
+
+    public TrigramIndex.Hits search(String query, int offset, int limit) {
+        return index.search(query, offset, limit);
+    }
+
+    void index(Long id, String name, String lastname, String email) {
+        index.put(id, text(name, lastname, email));
+    }
+
+    void remove(Long id) {
+        index.remove(id);
+    }
+
+    private static String text(String name, String lastname, String email) {
+        return TrigramIndex.joinFields(name, lastname, email);
+    }
+}
@@ -0,0 +1,52 @@
+package com.project.demo.logic.entity.user;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA callbacks that keep {@link UserSearchIndex} in step with user writes. The index is looked up lazily
+ * because Hibernate creates this listener while the repositories the index depends on are still being built.
+ * The callbacks fire at flush, so inside a transaction the change is only applied once it commits; a rolled
+ * back save leaves the index untouched.
+ */
+public class UserSearchIndexListener {
+    private final ObjectProvider<UserSearchIndex> userSearchIndex;
+
+    public UserSearchIndexListener(ObjectProvider<UserSearchIndex> userSearchIndex) {
+        this.userSearchIndex = userSearchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(User user) {
+        // Read the values now; the entity may change again before the transaction commits
+        Long id = user.getId();
+        String name = user.getName();
+        String lastname = user.getLastname();
+        String email = user.getEmail();
+        afterCommit(() -> userSearchIndex.ifAvailable(index -> index.index(id, name, lastname, email)));
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        Long id = user.getId();
+        afterCommit(() -> userSearchIndex.ifAvailable(index -> index.remove(id)));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
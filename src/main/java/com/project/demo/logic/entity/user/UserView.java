@@ -0,0 +1,21 @@
+package com.project.demo.logic.entity.user;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.project.demo.logic.entity.order.OrderView;
+import com.project.demo.logic.entity.rol.RoleEnum;
+
+import java.util.List;
+
+/**
+ * Row of the user listing. Orders are only filled in when explicitly requested.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserView(Long id, String name, String lastname, String email, RoleEnum role, List<OrderView> orders) {
+    public UserView(Long id, String name, String lastname, String email, RoleEnum role) {
+        this(id, name, lastname, email, role, null);
+    }
+
+    public UserView withOrders(List<OrderView> orders) {
+        return new UserView(id, name, lastname, email, role, orders);
+    }
+}
@@ -2,6 +2,7 @@ package com.project.demo.logic.exceptions;
 
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.security.SignatureException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ProblemDetail;
 import org.springframework.security.access.AccessDeniedException;
@@ -10,15 +11,14 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     @ExceptionHandler(Exception.class)
     public ProblemDetail handleSecurityException(Exception exception) {
         ProblemDetail errorDetail = null;
 
-        // TODO send this stack trace to an observability tool
-        exception.printStackTrace();
-
         if (exception instanceof BadCredentialsException) {
             errorDetail = ProblemDetail.forStatusAndDetail(HttpStatusCode.valueOf(401), exception.getMessage());
             errorDetail.setProperty("description", "The username or password is incorrect");
@@ -46,7 +46,35 @@ public class GlobalExceptionHandler {
             errorDetail.setProperty("description", "The JWT token has expired");
         }
 
+        if (exception instanceof InvalidRefreshTokenException) {
+            errorDetail = ProblemDetail.forStatusAndDetail(HttpStatusCode.valueOf(401), exception.getMessage());
+            errorDetail.setProperty("description", "The refresh token is invalid, log in again");
+        }
+
+        if (exception instanceof LoginThrottledException) {
+            errorDetail = ProblemDetail.forStatusAndDetail(HttpStatusCode.valueOf(429), exception.getMessage());
+            errorDetail.setProperty("description", "Too many login attempts, try again later");
+        }
+
+        if (exception instanceof VersionConflictException) {
+            errorDetail = ProblemDetail.forStatusAndDetail(HttpStatusCode.valueOf(412), exception.getMessage());
+            errorDetail.setProperty("description", "The resource has changed, fetch it again before updating");
+        }
+
+        if (exception instanceof OptimisticLockingFailureException) {
+            errorDetail = ProblemDetail.forStatusAndDetail(HttpStatusCode.valueOf(409), exception.getMessage());
+            errorDetail.setProperty("description", "The resource was updated concurrently, try again");
+        }
+
+        if (exception instanceof RejectedExecutionException) {
+            errorDetail = ProblemDetail.forStatusAndDetail(HttpStatusCode.valueOf(503), exception.getMessage());
+            errorDetail.setProperty("description", "The server is busy, try again later");
+        }
+
         if (errorDetail == null) {
+            // TODO send this stack trace to an observability tool
+            exception.printStackTrace();
+
             errorDetail = ProblemDetail.forStatusAndDetail(HttpStatusCode.valueOf(500), exception.getMessage());
             errorDetail.setProperty("description", "Unknown internal server error.");
         }
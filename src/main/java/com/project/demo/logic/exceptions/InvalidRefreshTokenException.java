@@ -0,0 +1,7 @@
+package com.project.demo.logic.exceptions;
+
+public class InvalidRefreshTokenException extends RuntimeException {
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.project.demo.logic.exceptions;
+
+public class LoginThrottledException extends RuntimeException {
+    public LoginThrottledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.project.demo.logic.exceptions;
+
+public class VersionConflictException extends RuntimeException {
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,18 +1,29 @@
 package com.project.demo.rest.admin;
 
+import com.project.demo.logic.entity.auth.RefreshTokenService;
+import com.project.demo.logic.entity.auth.TokenRevocationService;
+import com.project.demo.logic.entity.auth.UserPrincipalCache;
+import com.project.demo.logic.entity.http.PageCountCache;
+import com.project.demo.logic.entity.metrics.MetricsSource;
 import com.project.demo.logic.entity.rol.Role;
 import com.project.demo.logic.entity.rol.RoleEnum;
 import com.project.demo.logic.entity.rol.RoleRepository;
 import com.project.demo.logic.entity.user.User;
 import com.project.demo.logic.entity.user.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RequestMapping("/admin")
@@ -28,6 +39,21 @@ public class AdminController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private PageCountCache pageCountCache;
+
+    @Autowired
+    private List<MetricsSource> metricsSources;
+
     @PostMapping
     @PreAuthorize("hasRole('SUPER_ADMIN')")
     public User createAdministrator(@RequestBody User newAdminUser) {
@@ -43,6 +69,25 @@ public class AdminController {
         user.setPassword(passwordEncoder.encode(newAdminUser.getPassword()));
         user.setRole(optionalRole.get());
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userPrincipalCache.evict(savedUser.getEmail());
+        pageCountCache.invalidate("users");
+        return savedUser;
+    }
+
+    @PostMapping("/users/{userId}/revoke-tokens")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<Void> revokeUserTokens(@PathVariable Long userId) {
+        tokenRevocationService.revokeAllForUser(userId);
+        refreshTokenService.revokeAllForUser(userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/metrics")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public Map<String, Map<String, Object>> getMetrics() {
+        Map<String, Map<String, Object>> metrics = new LinkedHashMap<>();
+        metricsSources.forEach(source -> metrics.put(source.getMetricsName(), source.getMetrics()));
+        return metrics;
     }
 }
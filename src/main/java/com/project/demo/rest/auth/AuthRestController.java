@@ -1,13 +1,24 @@
 package com.project.demo.rest.auth;
 
 import com.project.demo.logic.entity.auth.AuthenticationService;
+import com.project.demo.logic.entity.auth.ClientAddressResolver;
 import com.project.demo.logic.entity.auth.JwtService;
+import com.project.demo.logic.entity.auth.LoginRateLimiter;
+import com.project.demo.logic.entity.auth.RefreshTokenRequest;
+import com.project.demo.logic.entity.auth.RefreshTokenService;
+import com.project.demo.logic.entity.auth.TokenRevocationService;
+import com.project.demo.logic.entity.auth.UserPrincipal;
+import com.project.demo.logic.entity.auth.UserPrincipalCache;
+import com.project.demo.logic.entity.http.PageCountCache;
 import com.project.demo.logic.entity.rol.Role;
 import com.project.demo.logic.entity.rol.RoleEnum;
 import com.project.demo.logic.entity.rol.RoleRepository;
 import com.project.demo.logic.entity.user.LoginResponse;
 import com.project.demo.logic.entity.user.User;
 import com.project.demo.logic.entity.user.UserRepository;
+import com.project.demo.logic.exceptions.InvalidRefreshTokenException;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +29,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Optional;
+import java.util.function.Function;
 
 @RequestMapping("/auth")
 @RestController
@@ -33,6 +45,24 @@ public class AuthRestController {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
+    @Autowired
+    private ClientAddressResolver clientAddressResolver;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private PageCountCache pageCountCache;
+
 
 
     private final AuthenticationService authenticationService;
@@ -44,7 +74,9 @@ public class AuthRestController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> authenticate(@RequestBody User user) {
+    public ResponseEntity<LoginResponse> authenticate(@RequestBody User user, HttpServletRequest request) {
+        loginRateLimiter.check(user.getEmail(), clientAddressResolver.resolve(request));
+
         User authenticatedUser = authenticationService.authenticate(user);
 
         String jwtToken = jwtService.generateToken(authenticatedUser);
@@ -52,14 +84,43 @@ public class AuthRestController {
         LoginResponse loginResponse = new LoginResponse();
         loginResponse.setToken(jwtToken);
         loginResponse.setExpiresIn(jwtService.getExpirationTime());
+        loginResponse.setRefreshToken(refreshTokenService.issue(authenticatedUser.getId()));
+        loginResponse.setAuthUser(authenticatedUser);
 
-        Optional<User> foundedUser = userRepository.findByEmail(user.getEmail());
+        return ResponseEntity.ok(loginResponse);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@RequestBody RefreshTokenRequest refreshTokenRequest) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshTokenRequest.getRefreshToken());
 
-        foundedUser.ifPresent(loginResponse::setAuthUser);
+        UserPrincipal principal = userRepository.findPrincipalById(rotation.userId())
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is invalid"));
+
+        LoginResponse loginResponse = new LoginResponse();
+        loginResponse.setToken(jwtService.generateToken(principal));
+        loginResponse.setExpiresIn(jwtService.getExpirationTime());
+        loginResponse.setRefreshToken(rotation.refreshToken());
 
         return ResponseEntity.ok(loginResponse);
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody(required = false) RefreshTokenRequest refreshTokenRequest,
+                                    HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            Claims claims = jwtService.extractClaim(authHeader.substring(7), Function.identity());
+            tokenRevocationService.revokeToken(claims);
+        }
+
+        if (refreshTokenRequest != null && refreshTokenRequest.getRefreshToken() != null) {
+            refreshTokenService.revokeFamily(refreshTokenRequest.getRefreshToken());
+        }
+
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@RequestBody User user) {
         Optional<User> existingUser = userRepository.findByEmail(user.getEmail());
@@ -75,6 +136,8 @@ public class AuthRestController {
         }
         user.setRole(optionalRole.get());
         User savedUser = userRepository.save(user);
+        userPrincipalCache.evict(savedUser.getEmail());
+        pageCountCache.invalidate("users");
         return ResponseEntity.ok(savedUser);
     }
 
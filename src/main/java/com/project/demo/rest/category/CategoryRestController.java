@@ -2,6 +2,9 @@ package com.project.demo.rest.category;
 
 import com.project.demo.logic.entity.category.Category;
 import com.project.demo.logic.entity.category.CategoryRepository;
+import com.project.demo.logic.entity.category.CategorySummaryCache;
+import com.project.demo.logic.entity.category.CategorySummaryView;
+import com.project.demo.logic.entity.product.ProductCatalogCache;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -16,8 +19,15 @@ public class CategoryRestController {
 
     private final CategoryRepository categoryRepository;
 
-    public CategoryRestController(CategoryRepository categoryRepository) {
+    private final ProductCatalogCache productCatalogCache;
+
+    private final CategorySummaryCache categorySummaryCache;
+
+    public CategoryRestController(CategoryRepository categoryRepository, ProductCatalogCache productCatalogCache,
+                                  CategorySummaryCache categorySummaryCache) {
         this.categoryRepository = categoryRepository;
+        this.productCatalogCache = productCatalogCache;
+        this.categorySummaryCache = categorySummaryCache;
     }
 
     @GetMapping
@@ -27,6 +37,12 @@ public class CategoryRestController {
         return ResponseEntity.ok(categories);
     }
 
+    @GetMapping("/summary")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<CategorySummaryView>> getCategorySummary() {
+        return ResponseEntity.ok(categorySummaryCache.getAll());
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
@@ -41,6 +57,7 @@ public class CategoryRestController {
         try {
             category.setId(null);
             Category savedCategory = categoryRepository.save(category);
+            categorySummaryCache.markStale(savedCategory.getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(savedCategory);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -58,6 +75,8 @@ public class CategoryRestController {
             category.setDescripcion(categoryDetails.getDescripcion());
             try {
                 Category updatedCategory = categoryRepository.save(category);
+                productCatalogCache.evictCategory(id);
+                categorySummaryCache.markStale(id);
                 return ResponseEntity.ok(updatedCategory);
             } catch (Exception e) {
                 return ResponseEntity.badRequest().build();
@@ -74,6 +93,8 @@ public class CategoryRestController {
         if (optionalCategory.isPresent()) {
             try {
                 categoryRepository.deleteById(id);
+                productCatalogCache.evictCategory(id);
+                categorySummaryCache.markStale(id);
                 return ResponseEntity.ok("Delete category successful");
             } catch (Exception e) {
                 return ResponseEntity.status(HttpStatus.CONFLICT).body("Delete category failed");
@@ -1,46 +1,92 @@
 package com.project.demo.rest.order;
 
+import com.project.demo.logic.entity.http.ETags;
 import com.project.demo.logic.entity.http.GlobalResponseHandler;
 import com.project.demo.logic.entity.http.Meta;
+import com.project.demo.logic.entity.http.PageCountCache;
 import com.project.demo.logic.entity.order.Order;
+import com.project.demo.logic.entity.order.OrderBulkImporter;
+import com.project.demo.logic.entity.order.OrderCursor;
+import com.project.demo.logic.entity.order.OrderExporter;
 import com.project.demo.logic.entity.order.OrderRepository;
+import com.project.demo.logic.entity.order.OrderService;
+import com.project.demo.logic.entity.order.OrderSummaryReconciler;
+import com.project.demo.logic.entity.order.UserOrderSummary;
 import com.project.demo.logic.entity.user.User;
 import com.project.demo.logic.entity.user.UserRepository;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/orders")
 public class OrderRestController {
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private OrderRepository orderRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderSummaryReconciler orderSummaryReconciler;
+
+    @Autowired
+    private OrderBulkImporter orderBulkImporter;
+
+    @Autowired
+    private OrderExporter orderExporter;
+
+    @Autowired
+    private PageCountCache pageCountCache;
+
     @GetMapping
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> getAll(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "true") boolean withTotal,
             HttpServletRequest request) {
 
+            if (page < 1 || size < 1 || size > MAX_PAGE_SIZE) {
+                return invalidPage(request);
+            }
+            if (after != null) {
+                OrderCursor cursor = OrderCursor.decode(after);
+                if (cursor == null) {
+                    return new GlobalResponseHandler().handleResponse("Invalid cursor", HttpStatus.BAD_REQUEST, request);
+                }
+                List<Order> orders = findPageAfter(cursor, size + 1);
+                return keysetResponse(orders, size, request);
+            }
+
             Pageable pageable = PageRequest.of(page-1, size);
-            Page<Order> ordersPage = orderRepository.findAll(pageable);
-            Meta meta = new Meta(request.getMethod(), request.getRequestURL().toString());
-            meta.setTotalPages(ordersPage.getTotalPages());
-            meta.setTotalElements(ordersPage.getTotalElements());
-            meta.setPageNumber(ordersPage.getNumber() + 1);
-            meta.setPageSize(ordersPage.getSize());
+            Slice<Order> ordersPage = orderRepository.findAllBy(pageable);
+            Long total = withTotal ? pageCountCache.get("orders", orderRepository::count) : null;
+            Meta meta = Meta.forSlice(request, ordersPage, total);
 
             return new GlobalResponseHandler().handleResponse("Order retrieved successfully",
                     ordersPage.getContent(), HttpStatus.OK, meta);
@@ -51,18 +97,28 @@ public class OrderRestController {
     public ResponseEntity<?> getAllByUser (@PathVariable Long userId,
                                            @RequestParam(defaultValue = "1") int page,
                                            @RequestParam(defaultValue = "10") int size,
+                                           @RequestParam(required = false) String after,
+                                           @RequestParam(defaultValue = "true") boolean withTotal,
                                            HttpServletRequest request) {
-        Optional<User> foundUser = userRepository.findById(userId);
-        if(foundUser.isPresent()) {
-
+        if (page < 1 || size < 1 || size > MAX_PAGE_SIZE) {
+            return invalidPage(request);
+        }
+        if(userRepository.existsById(userId)) {
+            if (after != null) {
+                OrderCursor cursor = OrderCursor.decode(after);
+                if (cursor == null) {
+                    return new GlobalResponseHandler().handleResponse("Invalid cursor", HttpStatus.BAD_REQUEST, request);
+                }
+                List<Order> orders = orderRepository.findUserPageAfter(userId, cursor.id(), Limit.of(size + 1));
+                return keysetResponse(orders, size, request);
+            }
 
             Pageable pageable = PageRequest.of(page-1, size);
-            Page<Order> ordersPage = orderRepository.getOrderByUserId(userId, pageable);
-            Meta meta = new Meta(request.getMethod(), request.getRequestURL().toString());
-            meta.setTotalPages(ordersPage.getTotalPages());
-            meta.setTotalElements(ordersPage.getTotalElements());
-            meta.setPageNumber(ordersPage.getNumber() + 1);
-            meta.setPageSize(ordersPage.getSize());
+            Slice<Order> ordersPage = orderRepository.findSliceByUserId(userId, pageable);
+            Long total = withTotal
+                    ? pageCountCache.get("orders:user:" + userId, () -> orderRepository.countByUserId(userId))
+                    : null;
+            Meta meta = Meta.forSlice(request, ordersPage, total);
 
 
             return new GlobalResponseHandler().handleResponse("Order retrieved successfully",
@@ -73,29 +129,99 @@ public class OrderRestController {
         }
     }
 
+    @GetMapping("/user/{userId}/summary")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getUserSummary(@PathVariable Long userId, HttpServletRequest request) {
+        Optional<UserOrderSummary> summary = orderService.getSummary(userId);
+        if(summary.isPresent()) {
+            return new GlobalResponseHandler().handleResponse("Order summary retrieved successfully",
+                    summary.get(), HttpStatus.OK, request);
+        } else {
+            return new GlobalResponseHandler().handleResponse("User id " + userId + " not found"  ,
+                    HttpStatus.NOT_FOUND, request);
+        }
+    }
+
+    @GetMapping("/summary/top-spenders")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<?> getTopSpenders(@RequestParam(defaultValue = "10") int limit, HttpServletRequest request) {
+        return new GlobalResponseHandler().handleResponse("Top spenders retrieved successfully",
+                orderService.getTopSpenders(limit), HttpStatus.OK, request);
+    }
+
+    @PostMapping("/summary/reconcile")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public ResponseEntity<?> reconcileSummaries(HttpServletRequest request) {
+        return new GlobalResponseHandler().handleResponse("Order summaries reconciled",
+                orderSummaryReconciler.reconcile(), HttpStatus.OK, request);
+    }
+
     @PostMapping("/user/{userId}")
     public ResponseEntity<?> addOrderToUser(@PathVariable Long userId, @RequestBody Order order, HttpServletRequest request) {
-        Optional<User> foundUser = userRepository.findById(userId);
-        if(foundUser.isPresent()) {
-            order.setUser(foundUser.get());
-            Order savedOrder = orderRepository.save(order);
+        Optional<Order> savedOrder = orderService.create(userId, order);
+        if(savedOrder.isPresent()) {
+            pageCountCache.invalidate("orders", "orders:user:" + userId);
             return new GlobalResponseHandler().handleResponse("Order created successfully",
-                    savedOrder, HttpStatus.CREATED, request);
+                    savedOrder.get(), HttpStatus.CREATED, request);
         } else {
             return new GlobalResponseHandler().handleResponse("User id " + userId + " not found"  ,
                     HttpStatus.NOT_FOUND, request);
         }
     }
 
-    @PutMapping("/{orderId}")
-    public ResponseEntity<?> updateOrder(@PathVariable Long orderId, @RequestBody Order order, HttpServletRequest request) {
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public void addOrdersInBulk(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Results are streamed as NDJSON, one line per input item in input order
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        orderBulkImporter.importOrders(request.getInputStream(), response.getOutputStream());
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public void exportOrders(@RequestParam(defaultValue = "ndjson") String format,
+                             @RequestParam(required = false) Long userId,
+                             @RequestParam(required = false) Long fromId,
+                             @RequestParam(required = false) Long toId,
+                             HttpServletResponse response) throws IOException {
+        OrderExporter.Format exportFormat;
+        try {
+            exportFormat = OrderExporter.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Unsupported export format " + format);
+            return;
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"orders." + exportFormat.getExtension() + "\"");
+        orderExporter.export(exportFormat, userId, fromId, toId, response.getOutputStream());
+    }
+
+    @GetMapping("/{orderId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getOrder(@PathVariable Long orderId, HttpServletRequest request) {
         Optional<Order> foundOrder = orderRepository.findById(orderId);
         if(foundOrder.isPresent()) {
-            order.setId(foundOrder.get().getId());
-            order.setUser(foundOrder.get().getUser());
-            orderRepository.save(order);
-            return new GlobalResponseHandler().handleResponse("Order updated successfully",
-                    order, HttpStatus.OK, request);
+            return withETag(new GlobalResponseHandler().handleResponse("Order retrieved successfully",
+                    foundOrder.get(), HttpStatus.OK, request), foundOrder.get().getVersion());
+        } else {
+            return new GlobalResponseHandler().handleResponse("Order id " + orderId + " not found"  ,
+                    HttpStatus.NOT_FOUND, request);
+        }
+    }
+
+    @PutMapping("/{orderId}")
+    public ResponseEntity<?> updateOrder(@PathVariable Long orderId, @RequestBody Order order,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                         HttpServletRequest request) {
+        Optional<Order> updatedOrder = orderService.update(orderId, order, ETags.expectedVersion(ifMatch));
+        if(updatedOrder.isPresent()) {
+            return withETag(new GlobalResponseHandler().handleResponse("Order updated successfully",
+                    updatedOrder.get(), HttpStatus.OK, request), updatedOrder.get().getVersion());
         } else {
             return new GlobalResponseHandler().handleResponse("Order id " + orderId + " not found"  ,
                     HttpStatus.NOT_FOUND, request);
@@ -103,14 +229,30 @@ public class OrderRestController {
     }
 
     @PatchMapping("/{orderId}")
-    public ResponseEntity<?> patchOrder(@PathVariable Long orderId, @RequestBody Order order, HttpServletRequest request) {
-        Optional<Order> foundOrder = orderRepository.findById(orderId);
-        if(foundOrder.isPresent()) {
-            if(order.getTotal() != null) foundOrder.get().setTotal(order.getTotal());
-            if(order.getDescription() != null) foundOrder.get().setDescription(order.getDescription());
-            orderRepository.save(foundOrder.get());
-            return new GlobalResponseHandler().handleResponse("Order updated successfully",
-                    foundOrder.get(), HttpStatus.OK, request);
+    public ResponseEntity<?> patchOrder(@PathVariable Long orderId, @RequestBody Order order,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                        @RequestHeader(value = "Prefer", required = false) String prefer,
+                                        HttpServletRequest request) {
+        Long expectedVersion = ETags.expectedVersion(ifMatch);
+        if(!orderService.patch(orderId, order, expectedVersion)) {
+            return new GlobalResponseHandler().handleResponse("Order id " + orderId + " not found"  ,
+                    HttpStatus.NOT_FOUND, request);
+        }
+
+        // The updated order is read back and returned by default; "Prefer: return=minimal" skips that read and
+        // answers 204. With If-Match the new version is known without the read and is returned as the ETag.
+        if (prefer != null && prefer.contains("return=minimal")) {
+            ResponseEntity.HeadersBuilder<?> noContent = ResponseEntity.noContent();
+            if (expectedVersion != null) {
+                noContent.eTag(ETags.of(expectedVersion + 1));
+            }
+            return noContent.build();
+        }
+
+        Optional<Order> patchedOrder = orderRepository.findById(orderId);
+        if(patchedOrder.isPresent()) {
+            return withETag(new GlobalResponseHandler().handleResponse("Order updated successfully",
+                    patchedOrder.get(), HttpStatus.OK, request), patchedOrder.get().getVersion());
         } else {
             return new GlobalResponseHandler().handleResponse("Order id " + orderId + " not found"  ,
                     HttpStatus.NOT_FOUND, request);
@@ -120,17 +262,87 @@ public class OrderRestController {
     @DeleteMapping("/{orderId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
     public ResponseEntity<?> deleteOrder(@PathVariable Long orderId, HttpServletRequest request) {
-        Optional<Order> foundOrder = orderRepository.findById(orderId);
-        if(foundOrder.isPresent()) {
-            Optional<User> user = userRepository.findById(foundOrder.get().getUser().getId());
-            user.get().getOrders().remove(foundOrder.get());
-            orderRepository.deleteById(foundOrder.get().getId());
+        Optional<Order> deletedOrder = orderService.delete(orderId);
+        if(deletedOrder.isPresent()) {
+            // An order without a user only counts towards the overall total
+            User owner = deletedOrder.get().getUser();
+            if (owner != null) {
+                pageCountCache.invalidate("orders", "orders:user:" + owner.getId());
+            } else {
+                pageCountCache.invalidate("orders");
+            }
             return new GlobalResponseHandler().handleResponse("Order deleted successfully",
-                    foundOrder.get(), HttpStatus.OK, request);
+                    deletedOrder.get(), HttpStatus.OK, request);
         } else {
             return new GlobalResponseHandler().handleResponse("Order id " + orderId + " not found"  ,
                     HttpStatus.NOT_FOUND, request);
         }
     }
 
+    @DeleteMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<?> deleteOrders(@RequestParam List<Long> ids, HttpServletRequest request) {
+        OrderService.Deletion deletion = orderService.deleteAll(ids);
+
+        List<String> countKeys = new ArrayList<>();
+        countKeys.add("orders");
+        deletion.byUser().forEach(userTotals -> countKeys.add("orders:user:" + userTotals.userId()));
+        pageCountCache.invalidate(countKeys.toArray(String[]::new));
+
+        return new GlobalResponseHandler().handleResponse("Orders deleted successfully",
+                Map.of("deleted", deletion.deleted()), HttpStatus.OK, request);
+    }
+
+    @DeleteMapping("/user/{userId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<?> deleteOrdersOfUser(@PathVariable Long userId, HttpServletRequest request) {
+        Optional<Integer> deleted = orderService.deleteAllForUser(userId);
+        if(deleted.isPresent()) {
+            pageCountCache.invalidate("orders", "orders:user:" + userId);
+            return new GlobalResponseHandler().handleResponse("Orders deleted successfully",
+                    Map.of("deleted", deleted.get()), HttpStatus.OK, request);
+        } else {
+            return new GlobalResponseHandler().handleResponse("User id " + userId + " not found"  ,
+                    HttpStatus.NOT_FOUND, request);
+        }
+    }
+
+    private static ResponseEntity<?> withETag(ResponseEntity<?> response, long version) {
+        return ResponseEntity.status(response.getStatusCode()).eTag(ETags.of(version)).body(response.getBody());
+    }
+
+    private static ResponseEntity<?> invalidPage(HttpServletRequest request) {
+        return new GlobalResponseHandler().handleResponse("page must be 1 or more and size between 1 and "
+                + MAX_PAGE_SIZE, HttpStatus.BAD_REQUEST, request);
+    }
+
+    /**
+     * Orders without a user sort first under user id 0, which no user has, so they are walked on their own
+     * before the (user_id, id) range picks up the rest.
+     */
+    private List<Order> findPageAfter(OrderCursor cursor, int limit) {
+        List<Order> orders = new ArrayList<>(limit);
+        if (cursor.userId() == 0) {
+            orders.addAll(orderRepository.findUnassignedPageAfter(cursor.id(), Limit.of(limit)));
+        }
+        if (orders.size() < limit) {
+            orders.addAll(orderRepository.findPageAfter(cursor.userId(), cursor.id(), Limit.of(limit - orders.size())));
+        }
+        return orders;
+    }
+
+    private ResponseEntity<?> keysetResponse(List<Order> orders, int size, HttpServletRequest request) {
+        boolean hasNext = orders.size() > size;
+        List<Order> content = hasNext ? orders.subList(0, size) : orders;
+
+        Meta meta = new Meta(request.getMethod(), request.getRequestURL().toString());
+        meta.setPageSize(size);
+        if (hasNext) {
+            meta.setNextCursor(OrderCursor.after(content.get(content.size() - 1)).encode());
+        }
+
+        return new GlobalResponseHandler().handleResponse("Order retrieved successfully",
+                content, HttpStatus.OK, meta);
+    }
+
 }
@@ -2,15 +2,16 @@ package com.project.demo.rest.prefenceList;
 
 import com.project.demo.logic.entity.http.GlobalResponseHandler;
 import com.project.demo.logic.entity.http.Meta;
+import com.project.demo.logic.entity.http.PageCountCache;
 import com.project.demo.logic.entity.movie.Movie;
 import com.project.demo.logic.entity.movie.MovieRepository;
 import com.project.demo.logic.entity.preferenceList.PreferenceList;
 import com.project.demo.logic.entity.preferenceList.PreferenceListRepository;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -29,6 +30,9 @@ public class PreferenceListRestController {
     @Autowired
     private MovieRepository movieRepository;
 
+    @Autowired
+    private PageCountCache pageCountCache;
+
     // GET - POST - PATCH - PUT - DELETE
 
     @GetMapping
@@ -36,15 +40,13 @@ public class PreferenceListRestController {
     public ResponseEntity<?> getPreferenceLists(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal,
             HttpServletRequest request
     ) {
         Pageable pageable = PageRequest.of(page-1, size);
-        Page<PreferenceList> preferenceListsPage = preferenceListRepository.findAll(pageable);
-        Meta meta = new Meta(request.getMethod(), request.getRequestURL().toString());
-        meta.setTotalPages(preferenceListsPage.getTotalPages());
-        meta.setTotalElements(preferenceListsPage.getTotalElements());
-        meta.setPageNumber(preferenceListsPage.getNumber() + 1);
-        meta.setPageSize(preferenceListsPage.getSize());
+        Slice<PreferenceList> preferenceListsPage = preferenceListRepository.findAllBy(pageable);
+        Long total = withTotal ? pageCountCache.get("preferenceLists", preferenceListRepository::count) : null;
+        Meta meta = Meta.forSlice(request, preferenceListsPage, total);
 
         return new GlobalResponseHandler().handleResponse("Preference Lists retrieved successfully",
                 preferenceListsPage.getContent(), HttpStatus.OK, meta);
@@ -73,6 +75,7 @@ public class PreferenceListRestController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> addPreferenceList(@RequestBody PreferenceList preferenceList, HttpServletRequest request) {
         PreferenceList savedPreferencelist = preferenceListRepository.save(preferenceList);
+        pageCountCache.invalidate("preferenceLists");
         return new GlobalResponseHandler().handleResponse(
                 "Preference List successfully saved",
                 savedPreferencelist,
@@ -97,6 +100,7 @@ public class PreferenceListRestController {
         Optional<PreferenceList> foundPrefereceList = preferenceListRepository.findById(Id);
         if(foundPrefereceList.isPresent()) {
             preferenceListRepository.deleteById(Id);
+            pageCountCache.invalidate("preferenceLists");
             return new GlobalResponseHandler().handleResponse(
                     "Preference List successfully deleted",
                     HttpStatus.OK,
@@ -1,48 +1,252 @@
 package com.project.demo.rest.product;
 
+import com.project.demo.logic.entity.http.GlobalResponseHandler;
+import com.project.demo.logic.entity.http.Meta;
+import com.project.demo.logic.entity.http.PageCountCache;
 import com.project.demo.logic.entity.product.Product;
+import com.project.demo.logic.entity.product.ProductBulkImporter;
+import com.project.demo.logic.entity.product.ProductCatalogCache;
+import com.project.demo.logic.entity.product.ProductPriceIndex;
 import com.project.demo.logic.entity.product.ProductRepository;
+import com.project.demo.logic.entity.product.ProductSearchCriteria;
+import com.project.demo.logic.entity.product.ProductSearchIndex;
+import com.project.demo.logic.entity.product.ProductView;
+import com.project.demo.logic.entity.product.StockRequest;
+import com.project.demo.logic.entity.product.StockReservationEngine;
 import com.project.demo.logic.entity.category.Category;
 import com.project.demo.logic.entity.category.CategoryRepository;
+import com.project.demo.logic.entity.category.CategorySummaryCache;
+import com.project.demo.logic.entity.search.TrigramIndex;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/products")
 public class ProductRestController {
+    private static final Set<String> SEARCH_SORT_FIELDS = Set.of("id", "name", "price", "stock");
+
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
 
     private final ProductRepository productRepository;
 
     private final CategoryRepository categoryRepository;
 
-    public  ProductRestController(ProductRepository productRepository, CategoryRepository categoryRepository) {
+    private final ProductCatalogCache productCatalogCache;
+
+    private final PageCountCache pageCountCache;
+
+    private final ProductSearchIndex productSearchIndex;
+
+    private final ProductPriceIndex productPriceIndex;
+
+    private final CategorySummaryCache categorySummaryCache;
+
+    private final StockReservationEngine stockReservationEngine;
+
+    private final ProductBulkImporter productBulkImporter;
+
+    public  ProductRestController(ProductRepository productRepository, CategoryRepository categoryRepository,
+                                  ProductCatalogCache productCatalogCache, PageCountCache pageCountCache,
+                                  ProductSearchIndex productSearchIndex, ProductPriceIndex productPriceIndex,
+                                  CategorySummaryCache categorySummaryCache,
+                                  StockReservationEngine stockReservationEngine,
+                                  ProductBulkImporter productBulkImporter) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
+        this.productCatalogCache = productCatalogCache;
+        this.pageCountCache = pageCountCache;
+        this.productSearchIndex = productSearchIndex;
+        this.productPriceIndex = productPriceIndex;
+        this.categorySummaryCache = categorySummaryCache;
+        this.stockReservationEngine = stockReservationEngine;
+        this.productBulkImporter = productBulkImporter;
     }
 
 
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productRepository.findAll();
+    public ResponseEntity<List<ProductView>> getAllProducts() {
+        List<ProductView> products = productCatalogCache.getAll(
+                productRepository::findAllViews);
         return ResponseEntity.ok(products);
     }
 
 
+    @GetMapping("/search")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> searchProducts(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer minStock,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            HttpServletRequest request) {
+
+        if (page < 1 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            return invalidPage(request);
+        }
+        String[] sortParts = sort.split(",");
+        if (!SEARCH_SORT_FIELDS.contains(sortParts[0])
+                || (sortParts.length > 1 && !sortParts[1].equalsIgnoreCase("asc") && !sortParts[1].equalsIgnoreCase("desc"))) {
+            return new GlobalResponseHandler().handleResponse("Unsupported sort " + sort,
+                    HttpStatus.BAD_REQUEST, request);
+        }
+        Sort.Direction direction = sortParts.length > 1 && sortParts[1].equalsIgnoreCase("desc")
+                ? Sort.Direction.DESC : Sort.Direction.ASC;
+
+        ProductSearchCriteria criteria = new ProductSearchCriteria(categoryId, minPrice, maxPrice, minStock, name);
+        Pageable pageable = PageRequest.of(page - 1, size, Sort.by(direction, sortParts[0]));
+        Slice<ProductView> products = productRepository.search(criteria, pageable);
+        Long total = withTotal ? pageCountCache.get("products:" + criteria, () -> productRepository.count(criteria)) : null;
+        Meta meta = Meta.forSlice(request, products, total);
+
+        return new GlobalResponseHandler().handleResponse("Products retrieved successfully",
+                products.getContent(), HttpStatus.OK, meta);
+    }
+
+
+    @GetMapping("/suggest")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> suggestProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request) {
+
+        if (page < 1 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            return invalidPage(request);
+        }
+        if (q.trim().length() < TrigramIndex.MIN_QUERY_LENGTH) {
+            return new GlobalResponseHandler().handleResponse("q must have at least "
+                    + TrigramIndex.MIN_QUERY_LENGTH + " characters", HttpStatus.BAD_REQUEST, request);
+        }
+        TrigramIndex.Hits hits = productSearchIndex.search(q, offset(page, size), size);
+        return indexedPage(hits.ids(), hits.total(), page, size, request);
+    }
+
+
+    @GetMapping("/by-price")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getProductsByPrice(
+            @RequestParam(defaultValue = "0") double min,
+            @RequestParam(defaultValue = "" + Double.MAX_VALUE) double max,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request) {
+
+        if (page < 1 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            return invalidPage(request);
+        }
+        ProductPriceIndex.Range range = productPriceIndex.priceBetween(min, max, inStock, offset(page, size), size);
+        return indexedPage(range.ids(), range.total(), page, size, request);
+    }
+
+
+    @GetMapping("/by-stock")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getProductsByStock(
+            @RequestParam(defaultValue = "0") int above,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request) {
+
+        if (page < 1 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            return invalidPage(request);
+        }
+        ProductPriceIndex.Range range = productPriceIndex.stockAbove(above, offset(page, size), size);
+        return indexedPage(range.ids(), range.total(), page, size, request);
+    }
+
+
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Optional<Product> product = productRepository.findById(id);
+    public ResponseEntity<ProductView> getProductById(@PathVariable Long id) {
+        Optional<ProductView> product = productCatalogCache.get(id,
+                key -> productRepository.findViewById(key).orElse(null));
         return product.map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
 
+    @GetMapping("/{id}/stock")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Object>> getAvailableStock(@PathVariable Long id) {
+        return stockReservationEngine.available(id)
+                .map(available -> ResponseEntity.ok(Map.<String, Object>of("productId", id, "available", available)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+
+    // A reservation takes the units off the stock until it is confirmed or released. One that is neither
+    // confirmed nor released within products.stock.reservation-ttl expires and its units come back, and so do
+    // the units of every unconfirmed reservation when the application stops.
+    @PostMapping("/{id}/reserve")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StockReservationEngine.Result> reserveStock(@PathVariable Long id,
+                                                                      @RequestBody StockRequest request) {
+        if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        StockReservationEngine.Result result = stockReservationEngine.reserve(id, request.getQuantity());
+        return switch (result.outcome()) {
+            case RESERVED -> ResponseEntity.status(HttpStatus.CREATED).body(result);
+            case INSUFFICIENT_STOCK -> ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+            case UNKNOWN_PRODUCT -> ResponseEntity.notFound().build();
+        };
+    }
+
+
+    // Turns a reservation into a sale: its units stay off the stock for good and it no longer expires
+    @PostMapping("/{id}/confirm")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StockReservationEngine.Reservation> confirmStock(@PathVariable Long id,
+                                                                           @RequestBody StockRequest request) {
+        if (request.getReservationId() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return stockReservationEngine.confirm(id, request.getReservationId())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+
+    // Cancels an unconfirmed reservation and hands its units back
+    @PostMapping("/{id}/release")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StockReservationEngine.Reservation> releaseStock(@PathVariable Long id,
+                                                                           @RequestBody StockRequest request) {
+        if (request.getReservationId() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return stockReservationEngine.release(id, request.getReservationId())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+
     @PostMapping
     @PreAuthorize("hasRole('SUPER_ADMIN')")
     public ResponseEntity<Product> createProduct(@RequestBody Product product) {
@@ -63,6 +267,8 @@ public class ProductRestController {
                 return ResponseEntity.badRequest().build();
             }
             Product savedProduct = productRepository.save(product);
+            productCatalogCache.evict(null);
+            categorySummaryCache.markStale(categoryIdOf(savedProduct));
             return ResponseEntity.status(HttpStatus.CREATED).body(savedProduct);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -70,12 +276,28 @@ public class ProductRestController {
     }
 
 
+    @PostMapping(value = "/import",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    public void importProducts(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ProductBulkImporter.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? ProductBulkImporter.Format.CSV : ProductBulkImporter.Format.JSON;
+
+        // Results are streamed as NDJSON, one line per input row in input order
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        productBulkImporter.importProducts(format, request.getInputStream(), response.getOutputStream());
+    }
+
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('SUPER_ADMIN')")
     public ResponseEntity<Product> updateProduct(@PathVariable Long id, @RequestBody Product productDetails) {
-        Optional<Product> optionalProduct = productRepository.findById(id);
+        Optional<Product> optionalProduct = productRepository.findWithCategoryById(id);
         if (optionalProduct.isPresent()) {
             Product product = optionalProduct.get();
+            Long previousCategoryId = categoryIdOf(product);
             if (productDetails.getCategory() != null && productDetails.getCategory().getId() != null) {
                 Category category = categoryRepository.findById(productDetails.getCategory().getId())
                         .orElseThrow(() -> new IllegalArgumentException("Categoría no válida"));
@@ -90,14 +312,24 @@ public class ProductRestController {
             if (productDetails.getStock() == null || productDetails.getStock() < 0) {
                 return ResponseEntity.badRequest().build();
             }
+            // The counter owns the live stock, so an edit moves it by the difference to the stock that was read
+            int readStock = product.getStock() == null ? 0 : product.getStock();
+            Optional<Integer> available = stockReservationEngine.adjust(id, readStock, productDetails.getStock());
+            if (available.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
             product.setName(productDetails.getName());
             product.setDescription(productDetails.getDescription());
             product.setPrice(productDetails.getPrice());
-            product.setStock(productDetails.getStock());
+            product.setStock(available.get());
             try {
                 Product updatedProduct = productRepository.save(product);
+                stockReservationEngine.resync(id);
+                productCatalogCache.evict(id);
+                categorySummaryCache.markStale(previousCategoryId, categoryIdOf(updatedProduct));
                 return ResponseEntity.ok(updatedProduct);
             } catch (Exception e) {
+                stockReservationEngine.adjust(id, productDetails.getStock(), readStock);
                 return ResponseEntity.badRequest().build();
             }
         } else {
@@ -109,14 +341,51 @@ public class ProductRestController {
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('SUPER_ADMIN')")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-        if (!productRepository.existsById(id)) {
+        Optional<ProductView> product = productRepository.findViewById(id);
+        if (product.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
             try {
                 productRepository.deleteById(id);
+                stockReservationEngine.forget(id);
+                productCatalogCache.evict(id);
+                categorySummaryCache.markStale(product.get().category() == null ? null : product.get().category().id());
                 return ResponseEntity.noContent().build();
             } catch (Exception e) {
                 return ResponseEntity.status(HttpStatus.CONFLICT).build();
             }
     }
+
+    private static Long categoryIdOf(Product product) {
+        return product.getCategory() == null ? null : product.getCategory().getId();
+    }
+
+    private static ResponseEntity<?> invalidPage(HttpServletRequest request) {
+        return new GlobalResponseHandler().handleResponse("page must be 1 or more and size between 1 and "
+                + MAX_SEARCH_PAGE_SIZE, HttpStatus.BAD_REQUEST, request);
+    }
+
+    private static int offset(int page, int size) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) (page - 1) * size);
+    }
+
+    private ResponseEntity<?> indexedPage(List<Long> ids, int total, int page, int size, HttpServletRequest request) {
+        Map<Long, ProductView> productsById = ids.isEmpty() ? Map.of() : productCatalogCache.getAll(ids,
+                missing -> productRepository.findViewsByIds(missing)
+                        .stream()
+                        .collect(Collectors.toMap(ProductView::id, Function.identity())));
+        List<ProductView> products = ids.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        Meta meta = new Meta(request.getMethod(), request.getRequestURL().toString());
+        meta.setTotalPages((total + size - 1) / size);
+        meta.setTotalElements(total);
+        meta.setPageNumber(page);
+        meta.setPageSize(size);
+
+        return new GlobalResponseHandler().handleResponse("Products retrieved successfully",
+                products, HttpStatus.OK, meta);
+    }
 }
\ No newline at end of file
@@ -1,14 +1,26 @@
 package com.project.demo.rest.user;
 
+import com.project.demo.logic.entity.auth.RefreshTokenService;
+import com.project.demo.logic.entity.auth.TokenRevocationService;
+import com.project.demo.logic.entity.auth.UserPrincipal;
+import com.project.demo.logic.entity.auth.UserPrincipalCache;
 import com.project.demo.logic.entity.http.GlobalResponseHandler;
 import com.project.demo.logic.entity.http.Meta;
+import com.project.demo.logic.entity.http.PageCountCache;
+import com.project.demo.logic.entity.search.TrigramIndex;
+import com.project.demo.logic.entity.order.OrderRepository;
+import com.project.demo.logic.entity.order.OrderService;
+import com.project.demo.logic.entity.order.OrderView;
 import com.project.demo.logic.entity.user.User;
+import com.project.demo.logic.entity.user.UserDetailView;
 import com.project.demo.logic.entity.user.UserRepository;
+import com.project.demo.logic.entity.user.UserSearchIndex;
+import com.project.demo.logic.entity.user.UserView;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,43 +29,134 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/users")
 public class UserRestController {
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private PageCountCache pageCountCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
     public ResponseEntity<?> getAll(
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String include,
+            @RequestParam(defaultValue = "true") boolean withTotal,
             HttpServletRequest request) {
 
+        if (page < 1 || size < 1 || size > MAX_PAGE_SIZE) {
+            return invalidPage(request);
+        }
         Pageable pageable = PageRequest.of(page-1, size);
-        Page<User> ordersPage = userRepository.findAll(pageable);
+        Slice<UserView> usersSlice = userRepository.findAllViews(pageable);
+        List<UserView> users = usersSlice.getContent();
+        if ("orders".equals(include) && !users.isEmpty()) {
+            Map<Long, List<OrderView>> ordersByUser = orderRepository
+                    .findViewsByUserIds(users.stream().map(UserView::id).toList())
+                    .stream()
+                    .collect(Collectors.groupingBy(OrderView::userId));
+            users = users.stream()
+                    .map(user -> user.withOrders(ordersByUser.getOrDefault(user.id(), List.of())))
+                    .toList();
+        }
+
+        Long total = withTotal ? pageCountCache.get("users", userRepository::count) : null;
+        Meta meta = Meta.forSlice(request, usersSlice, total);
+
+        return new GlobalResponseHandler().handleResponse("Users retrieved successfully",
+                users, HttpStatus.OK, meta);
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<?> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request) {
+
+        if (page < 1 || size < 1 || size > MAX_PAGE_SIZE) {
+            return invalidPage(request);
+        }
+        if (q.trim().length() < TrigramIndex.MIN_QUERY_LENGTH) {
+            return new GlobalResponseHandler().handleResponse("q must have at least "
+                    + TrigramIndex.MIN_QUERY_LENGTH + " characters", HttpStatus.BAD_REQUEST, request);
+        }
+        TrigramIndex.Hits hits = userSearchIndex.search(q, offset(page, size), size);
+        Map<Long, UserView> usersById = hits.ids().isEmpty() ? Map.of() : userRepository.findViewsByIds(hits.ids())
+                .stream()
+                .collect(Collectors.toMap(UserView::id, Function.identity()));
+        List<UserView> users = hits.ids().stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .toList();
+
         Meta meta = new Meta(request.getMethod(), request.getRequestURL().toString());
-        meta.setTotalPages(ordersPage.getTotalPages());
-        meta.setTotalElements(ordersPage.getTotalElements());
-        meta.setPageNumber(ordersPage.getNumber() + 1);
-        meta.setPageSize(ordersPage.getSize());
+        meta.setTotalPages((hits.total() + size - 1) / size);
+        meta.setTotalElements(hits.total());
+        meta.setPageNumber(page);
+        meta.setPageSize(size);
 
         return new GlobalResponseHandler().handleResponse("Users retrieved successfully",
-                ordersPage.getContent(), HttpStatus.OK, meta);
+                users, HttpStatus.OK, meta);
+    }
+
+    @GetMapping("/{userId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
+    public ResponseEntity<?> getUser(@PathVariable Long userId,
+                                     @RequestParam(required = false) String include,
+                                     HttpServletRequest request) {
+        Optional<UserDetailView> foundUser = findDetail(userId, "orders".equals(include));
+        if(foundUser.isPresent()) {
+            return new GlobalResponseHandler().handleResponse("User retrieved successfully",
+                    foundUser.get(), HttpStatus.OK, request);
+        } else {
+            return new GlobalResponseHandler().handleResponse("User id " + userId + " not found"  ,
+                    HttpStatus.NOT_FOUND, request);
+        }
     }
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN')")
     public ResponseEntity<?> addUser(@RequestBody User user, HttpServletRequest request) {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        pageCountCache.invalidate("users");
         return new GlobalResponseHandler().handleResponse("User updated successfully",
-                user, HttpStatus.OK, request);
+                findDetail(savedUser.getId(), false).orElseGet(() -> UserDetailView.of(savedUser)), HttpStatus.OK, request);
     }
 
     @PutMapping("/{userId}")
@@ -61,10 +164,21 @@ public class UserRestController {
     public ResponseEntity<?> updateUser(@PathVariable Long userId, @RequestBody User user, HttpServletRequest request) {
         Optional<User> foundOrder = userRepository.findById(userId);
         if(foundOrder.isPresent()) {
+            User existing = foundOrder.get();
+            boolean credentialsChanged = !Objects.equals(existing.getEmail(), user.getEmail())
+                    || !passwordEncoder.matches(user.getPassword(), existing.getPassword())
+                    || !Objects.equals(roleIdOf(existing), roleIdOf(user));
             user.setPassword(passwordEncoder.encode(user.getPassword()));
-            userRepository.save(user);
+            user.setTokenVersion(existing.getTokenVersion());
+            User savedUser = userRepository.save(user);
+            userPrincipalCache.evict(existing.getEmail(), user.getEmail());
+            // A name edit keeps the user's sessions; a new email, password or role ends them
+            if (credentialsChanged) {
+                tokenRevocationService.revokeAllForUser(userId);
+                refreshTokenService.revokeAllForUser(userId);
+            }
             return new GlobalResponseHandler().handleResponse("User updated successfully",
-                    user, HttpStatus.OK, request);
+                    UserDetailView.of(savedUser), HttpStatus.OK, request);
         } else {
             return new GlobalResponseHandler().handleResponse("User id " + userId + " not found"  ,
                     HttpStatus.NOT_FOUND, request);
@@ -77,9 +191,15 @@ public class UserRestController {
     public ResponseEntity<?> deleteUser(@PathVariable Long userId, HttpServletRequest request) {
         Optional<User> foundOrder = userRepository.findById(userId);
         if(foundOrder.isPresent()) {
+            // Purge the order history set-based first so the cascade below has no orders left to delete one by one
+            orderService.deleteAllForUser(userId);
             userRepository.deleteById(userId);
+            pageCountCache.invalidate("users", "orders", "orders:user:" + userId);
+            userPrincipalCache.evict(foundOrder.get().getEmail());
+            tokenRevocationService.revokeAllForUser(userId);
+            refreshTokenService.revokeAllForUser(userId);
             return new GlobalResponseHandler().handleResponse("User deleted successfully",
-                    foundOrder.get(), HttpStatus.OK, request);
+                    UserDetailView.of(foundOrder.get()), HttpStatus.OK, request);
         } else {
             return new GlobalResponseHandler().handleResponse("Order id " + userId + " not found"  ,
                     HttpStatus.NOT_FOUND, request);
@@ -88,9 +208,33 @@ public class UserRestController {
 
     @GetMapping("/me")
     @PreAuthorize("isAuthenticated()")
-    public User authenticatedUser() {
+    public UserDetailView authenticatedUser(@RequestParam(required = false) String include) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return (User) authentication.getPrincipal();
+        Long userId = authentication.getPrincipal() instanceof UserPrincipal principal
+                ? principal.getId()
+                : ((User) authentication.getPrincipal()).getId();
+        return findDetail(userId, "orders".equals(include)).orElse(null);
+    }
+
+    private static ResponseEntity<?> invalidPage(HttpServletRequest request) {
+        return new GlobalResponseHandler().handleResponse("page must be 1 or more and size between 1 and "
+                + MAX_PAGE_SIZE, HttpStatus.BAD_REQUEST, request);
+    }
+
+    private static int offset(int page, int size) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) (page - 1) * size);
+    }
+
+    private static Integer roleIdOf(User user) {
+        return user.getRole() == null ? null : user.getRole().getId();
+    }
+
+    private Optional<UserDetailView> findDetail(Long userId, boolean includeOrders) {
+        Optional<UserDetailView> detail = userRepository.findDetailById(userId);
+        if (includeOrders) {
+            return detail.map(user -> user.withOrders(orderRepository.findViewsByUserIds(List.of(userId))));
+        }
+        return detail;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.project.demo.logic.entity.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+class ClientAddressResolverTest {
+    private static MockHttpServletRequest request(String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.1.2.3");
+        if (forwardedFor != null) {
+            request.addHeader(ClientAddressResolver.FORWARDED_FOR, forwardedFor);
+        }
+        return request;
+    }
+
+    @Test
+    void behindOneProxyTheClientIsTheHopTheProxyAppended() {
+        ClientAddressResolver resolver = new ClientAddressResolver(1);
+
+        assertThat(resolver.resolve(request("203.0.113.7"))).isEqualTo("203.0.113.7");
+        // A spoofed entry sent by the client stays to the left of what the router appended
+        assertThat(resolver.resolve(request("198.51.100.1, 203.0.113.7"))).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void clientsBehindTheSameRouterGetTheirOwnBuckets() {
+        ClientAddressResolver resolver = new ClientAddressResolver(1);
+        LoginRateLimiter limiter = new LoginRateLimiter(100, 1, 1, 1, 1000);
+
+        limiter.check("attacker@example.com", resolver.resolve(request("198.51.100.9")));
+
+        // The router's own address is shared by everyone, but the limiter sees a different client
+        assertThatCode(() -> limiter.check("victim@example.com", resolver.resolve(request("203.0.113.7"))))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void withoutTrustedHopsOrHeaderThePeerAddressIsUsed() {
+        assertThat(new ClientAddressResolver(0).resolve(request("203.0.113.7"))).isEqualTo("10.1.2.3");
+        assertThat(new ClientAddressResolver(1).resolve(request(null))).isEqualTo("10.1.2.3");
+        assertThat(new ClientAddressResolver(2).resolve(request("203.0.113.7"))).isEqualTo("10.1.2.3");
+    }
+}
@@ -0,0 +1,99 @@
+package com.project.demo.logic.entity.auth;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares what the JWT filter pays per request: building a parser and verifying the signature on every
+ * call (the former behaviour, three parses per request), reusing one parser, and the cached verified claims
+ * {@link JwtService} uses now.
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private static final String SECRET_KEY = "3cfa76ef14937c1c0ea519f8fc057a80fcd04a7420f8e8bcd0a7567c272e007b";
+
+    private JwtService jwtService;
+
+    private Key signInKey;
+
+    private JwtParser sharedParser;
+
+    private String token;
+
+    private UserDetails userDetails;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(Mockito.mock(TokenRevocationService.class));
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheMaxSize", 10_000L);
+        jwtService.init();
+
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        sharedParser = Jwts.parserBuilder().setSigningKey(signInKey).build();
+        userDetails = User.withUsername("benchmark@example.com").password("unused").roles("USER").build();
+        token = jwtService.generateToken(Map.of(), userDetails);
+    }
+
+    /**
+     * Decodes the key, builds a parser and verifies the signature three times, as the filter used to: once in
+     * extractUsername, then again in isTokenValid for the username and for the expiration.
+     */
+    @Benchmark
+    public boolean parsePerCall() {
+        Claims forFilter = parse();
+        Claims forUsername = parse();
+        Claims forExpiration = parse();
+        return forFilter.getSubject().equals(userDetails.getUsername())
+                && forUsername.getSubject().equals(userDetails.getUsername())
+                && forExpiration.getExpiration() != null;
+    }
+
+    private Claims parse() {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    /** Reuses one parser but still verifies the signature on each call. */
+    @Benchmark
+    public boolean sharedParser() {
+        Claims claims = sharedParser.parseClaimsJws(token).getBody();
+        return claims.getSubject().equals(userDetails.getUsername());
+    }
+
+    /** The filter's path today: one digest and cache lookup, then the validity check on those claims. */
+    @Benchmark
+    public boolean cachedClaims() {
+        Claims claims = jwtService.extractClaim(token, Function.identity());
+        return claims.getSubject().equals(userDetails.getUsername()) && jwtService.isTokenValid(claims, userDetails);
+    }
+}
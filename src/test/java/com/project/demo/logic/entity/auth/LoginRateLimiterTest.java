@@ -0,0 +1,35 @@
+package com.project.demo.logic.entity.auth;
+
+import com.project.demo.logic.exceptions.LoginThrottledException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginRateLimiterTest {
+    @Test
+    void throttledIpDoesNotDrainTheEmailBucket() {
+        LoginRateLimiter limiter = new LoginRateLimiter(3, 1, 2, 1, 1000);
+
+        limiter.check("victim@example.com", "10.0.0.1");
+        limiter.check("victim@example.com", "10.0.0.1");
+        for (int i = 0; i < 50; i++) {
+            assertThatThrownBy(() -> limiter.check("victim@example.com", "10.0.0.1"))
+                    .isInstanceOf(LoginThrottledException.class);
+        }
+
+        // One of the three email attempts is still left for the owner, from another address
+        assertThatCode(() -> limiter.check("victim@example.com", "10.0.0.2")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void emailBucketStillLimitsAttemptsFromManyAddresses() {
+        LoginRateLimiter limiter = new LoginRateLimiter(2, 1, 20, 1, 1000);
+
+        limiter.check("target@example.com", "10.0.0.1");
+        limiter.check("target@example.com", "10.0.0.2");
+
+        assertThatThrownBy(() -> limiter.check("target@example.com", "10.0.0.3"))
+                .isInstanceOf(LoginThrottledException.class);
+    }
+}
@@ -0,0 +1,80 @@
+package com.project.demo.logic.entity.auth;
+
+import com.project.demo.logic.entity.refreshToken.RefreshToken;
+import com.project.demo.logic.entity.refreshToken.RefreshTokenRepository;
+import com.project.demo.logic.exceptions.InvalidRefreshTokenException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshToken stored;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        stored = new RefreshToken();
+        stored.setId(1L);
+        stored.setFamilyId("family");
+        stored.setUserId(7L);
+        stored.setExpiresAt(new Date(System.currentTimeMillis() + 60_000));
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.markUsed(anyLong(), any())).thenReturn(1, 0);
+    }
+
+    private RefreshTokenService service(long gracePeriod) {
+        RefreshTokenService service = new RefreshTokenService(refreshTokenRepository, gracePeriod);
+        ReflectionTestUtils.setField(service, "refreshExpiration", 60_000L);
+        return service;
+    }
+
+    @Test
+    void expiredTokenIsRejectedWithoutBeingConsumed() {
+        stored.setExpiresAt(new Date(System.currentTimeMillis() - 1));
+
+        assertThatThrownBy(() -> service(10_000).rotate("token"))
+                .isInstanceOf(InvalidRefreshTokenException.class)
+                .hasMessageContaining("expired");
+        verify(refreshTokenRepository, never()).markUsed(anyLong(), any());
+        verify(refreshTokenRepository, never()).deleteByFamilyId(anyString());
+    }
+
+    @Test
+    void reuseWithinGracePeriodReturnsTheTokenAlreadyIssued() {
+        RefreshTokenService service = service(10_000);
+
+        RefreshTokenService.Rotation first = service.rotate("token");
+        RefreshTokenService.Rotation retried = service.rotate("token");
+
+        assertThat(retried).isEqualTo(first);
+        verify(refreshTokenRepository, never()).deleteByFamilyId(anyString());
+    }
+
+    @Test
+    void reuseAfterGracePeriodRevokesTheFamily() {
+        RefreshTokenService service = service(0);
+        service.rotate("token");
+        stored.setUsed(true);
+        stored.setUsedAt(new Date(System.currentTimeMillis() - 1));
+
+        assertThatThrownBy(() -> service.rotate("token"))
+                .isInstanceOf(InvalidRefreshTokenException.class)
+                .hasMessageContaining("reuse");
+        verify(refreshTokenRepository).deleteByFamilyId("family");
+    }
+}
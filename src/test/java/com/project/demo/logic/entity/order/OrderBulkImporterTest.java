@@ -0,0 +1,103 @@
+package com.project.demo.logic.entity.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.demo.logic.entity.http.PageCountCache;
+import com.project.demo.logic.entity.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderBulkImporterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private PlatformTransactionManager transactionManager;
+
+    private OrderBulkImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        AtomicLong ids = new AtomicLong();
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(ids.incrementAndGet());
+            return order;
+        });
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+
+        importer = new OrderBulkImporter(orderRepository, userRepository, mock(UserOrderSummaryRepository.class),
+                mock(PageCountCache.class), objectMapper, transactionManager, 2, 50);
+        ReflectionTestUtils.setField(importer, "entityManager", mock(EntityManager.class));
+    }
+
+    private List<BulkOrderResult> importItems(String... items) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        importer.importOrders(new ByteArrayInputStream(String.join("\n", items).getBytes(StandardCharsets.UTF_8)),
+                output);
+        return Stream.of(output.toString(StandardCharsets.UTF_8).split("\n"))
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, BulkOrderResult.class);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void failedChunkIsRejectedAndLaterChunksStillRun() throws Exception {
+        doNothing()
+                .doThrow(new TransactionSystemException("Deadlock found"))
+                .doNothing()
+                .when(transactionManager).commit(any());
+
+        List<BulkOrderResult> results = importItems(
+                "{\"userId\":1,\"description\":\"A\",\"total\":1.0}",
+                "{\"userId\":1,\"description\":\"B\",\"total\":2.0}",
+                "{\"userId\":1,\"description\":\"C\",\"total\":3.0}",
+                "{\"userId\":1,\"description\":\"D\",\"total\":4.0}",
+                "{\"userId\":1,\"description\":\"E\",\"total\":5.0}");
+
+        assertThat(results).extracting(BulkOrderResult::index).containsExactly(0, 1, 2, 3, 4);
+        assertThat(results.subList(0, 2)).allMatch(result -> result.error() == null);
+        assertThat(results.subList(2, 4)).allMatch(result -> result.id() == null
+                && result.error().contains("Deadlock found"));
+        assertThat(results.get(4).error()).isNull();
+    }
+
+    @Test
+    void failedChunkCountsAsRejectedInTheReport() throws Exception {
+        doThrow(new TransactionSystemException("Deadlock found")).when(transactionManager).commit(any());
+
+        OrderBulkImporter.Report report = importer.importOrders(new ByteArrayInputStream(
+                "{\"userId\":1,\"total\":1.0}".getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream());
+
+        assertThat(report).isEqualTo(new OrderBulkImporter.Report(1, 0, 1));
+    }
+}
@@ -0,0 +1,164 @@
+package com.project.demo.logic.entity.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.demo.logic.entity.category.CategoryRepository;
+import com.project.demo.logic.entity.category.CategorySummaryCache;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductBulkImporterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ProductRepository productRepository;
+
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private StockReservationEngine stockReservationEngine;
+
+    private ProductBulkImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Product> products = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                products.add(product(id, 10));
+            }
+            return products;
+        });
+        when(productRepository.findStockById(anyLong())).thenReturn(Optional.of(10));
+
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAllViews()).thenReturn(List.of());
+
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+
+        jdbcTemplate = mock(JdbcTemplate.class);
+        stockReservationEngine = new StockReservationEngine(productRepository, jdbcTemplate,
+                mock(ProductCatalogCache.class), mock(ProductPriceIndex.class), mock(CategorySummaryCache.class),
+                60_000, 1, 64);
+
+        importer = new ProductBulkImporter(productRepository, categoryRepository, mock(ProductSearchIndex.class),
+                mock(ProductPriceIndex.class), mock(ProductCatalogCache.class), mock(CategorySummaryCache.class),
+                stockReservationEngine, objectMapper, transactionManager, 2);
+        ReflectionTestUtils.setField(importer, "entityManager", mock(EntityManager.class));
+    }
+
+    private static Product product(long id, int stock) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(1.0);
+        product.setStock(stock);
+        return product;
+    }
+
+    private List<BulkProductResult> importRows(String... rows) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        importer.importProducts(ProductBulkImporter.Format.JSON,
+                new ByteArrayInputStream(String.join("\n", rows).getBytes(StandardCharsets.UTF_8)), output);
+        return Stream.of(output.toString(StandardCharsets.UTF_8).split("\n"))
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, BulkProductResult.class);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void stockChangesAreAppliedAsDifferencesToTheLiveCounter() throws Exception {
+        stockReservationEngine.reserve(1L, 4);
+
+        List<BulkProductResult> results = importRows(
+                "{\"id\":1,\"name\":\"A\",\"price\":1.0,\"stock\":15}",
+                "{\"id\":2,\"name\":\"B\",\"price\":1.0,\"stock\":10}");
+
+        assertThat(results).extracting(BulkProductResult::action).containsExactly("updated", "updated");
+        // Read 10, wrote 15: five more units on top of the 6 left after the reservation
+        assertThat(stockReservationEngine.available(1L)).contains(11);
+    }
+
+    @Test
+    void decreaseBelowTheReservedUnitsRejectsTheRow() throws Exception {
+        stockReservationEngine.reserve(1L, 8);
+
+        List<BulkProductResult> results = importRows("{\"id\":1,\"name\":\"A\",\"price\":1.0,\"stock\":5}");
+
+        assertThat(results.get(0).error()).contains("reserved");
+        assertThat(stockReservationEngine.available(1L)).contains(2);
+    }
+
+    @Test
+    void failedChunkIsRejectedAndLaterChunksStillRun() throws Exception {
+        doNothing()
+                .doThrow(new TransactionSystemException("Deadlock found"))
+                .doNothing()
+                .when(transactionManager).commit(any());
+        stockReservationEngine.available(3L);
+
+        List<BulkProductResult> results = importRows(
+                "{\"id\":1,\"name\":\"A\",\"price\":1.0,\"stock\":11}",
+                "{\"id\":2,\"name\":\"B\",\"price\":1.0,\"stock\":12}",
+                "{\"id\":3,\"name\":\"C\",\"price\":1.0,\"stock\":13}",
+                "{\"id\":4,\"name\":\"D\",\"price\":1.0,\"stock\":14}",
+                "{\"id\":5,\"name\":\"E\",\"price\":1.0,\"stock\":15}");
+
+        assertThat(results).extracting(BulkProductResult::index).containsExactly(0, 1, 2, 3, 4);
+        assertThat(results).extracting(BulkProductResult::action)
+                .containsExactly("updated", "updated", null, null, "updated");
+        assertThat(results.get(2).error()).contains("Deadlock found");
+        // The failed chunk's stock change was taken back from the counter
+        assertThat(stockReservationEngine.available(3L)).contains(10);
+    }
+
+    @Test
+    void counterThatCannotBeSetBackIsWrittenToTheDatabase() throws Exception {
+        doAnswer(invocation -> {
+            // The raised stock is reserved and flushed before the commit fails
+            stockReservationEngine.reserve(1L, 12);
+            stockReservationEngine.flush();
+            throw new TransactionSystemException("Deadlock found");
+        }).when(transactionManager).commit(any());
+
+        List<BulkProductResult> results = importRows("{\"id\":1,\"name\":\"A\",\"price\":1.0,\"stock\":15}");
+
+        assertThat(results.get(0).error()).contains("Deadlock found");
+        assertThat(stockReservationEngine.available(1L)).contains(3);
+        stockReservationEngine.flush();
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+    }
+}
@@ -0,0 +1,53 @@
+package com.project.demo.logic.entity.product;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCatalogCacheTest {
+    private static ProductView view(long id, String name) {
+        return new ProductView(id, name, null, 1.0, 1, null);
+    }
+
+    @Test
+    void listingLoadedAcrossAnEvictionIsNotCached() {
+        ProductCatalogCache cache = new ProductCatalogCache(100, 100, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<ProductView> stale = cache.getAll(() -> {
+            loads.incrementAndGet();
+            // An admin write commits while the listing is being read
+            cache.evict(1L);
+            return List.of(view(1, "old name"));
+        });
+        List<ProductView> fresh = cache.getAll(() -> {
+            loads.incrementAndGet();
+            return List.of(view(1, "new name"));
+        });
+
+        assertThat(stale).extracting(ProductView::name).containsExactly("old name");
+        assertThat(fresh).extracting(ProductView::name).containsExactly("new name");
+        assertThat(loads).hasValue(2);
+        assertThat(cache.get(1L, id -> view(id, "loaded"))).map(ProductView::name).contains("new name");
+    }
+
+    @Test
+    void listingIsCachedWhenNothingChanged() {
+        ProductCatalogCache cache = new ProductCatalogCache(100, 100, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getAll(() -> {
+            loads.incrementAndGet();
+            return List.of(view(1, "name"));
+        });
+        cache.getAll(() -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        assertThat(loads).hasValue(1);
+    }
+}
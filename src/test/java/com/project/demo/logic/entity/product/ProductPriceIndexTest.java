@@ -0,0 +1,44 @@
+package com.project.demo.logic.entity.product;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ProductPriceIndexTest {
+    private static ProductView view(long id, double price, int stock) {
+        return new ProductView(id, "Product " + id, null, price, stock, null);
+    }
+
+    private static ProductPriceIndex index() {
+        ProductPriceIndex index = new ProductPriceIndex(mock(ProductRepository.class), mock(PlatformTransactionManager.class));
+        index.apply(List.of(view(1, 5.0, 0), view(2, 10.0, 3), view(3, 15.0, 8), view(4, 20.0, 1)), List.of());
+        return index;
+    }
+
+    @Test
+    void applyReplacesChangedEntriesAndKeepsTheRest() {
+        ProductPriceIndex index = index();
+
+        index.apply(List.of(view(2, 30.0, 0)), List.of(4L));
+
+        assertThat(index.priceBetween(0, 100, false, 0, 10).ids()).containsExactly(1L, 3L, 2L);
+        assertThat(index.stockAbove(0, 0, 10).ids()).containsExactly(3L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void outOfRangeOffsetsAndLimitsReturnEmptyPages() {
+        ProductPriceIndex index = index();
+
+        assertThat(index.priceBetween(0, 100, false, -5, 2).ids()).containsExactly(1L, 2L);
+        assertThat(index.priceBetween(0, 100, false, 10, 2).ids()).isEmpty();
+        assertThat(index.priceBetween(0, 100, true, 0, 0).total()).isEqualTo(3);
+        assertThat(index.stockAbove(0, -1, 10).ids()).containsExactly(3L, 2L, 4L);
+        assertThat(index.stockAbove(0, 10, 10).ids()).isEmpty();
+        assertThat(index.stockAbove(0, 0, -1).ids()).isEmpty();
+    }
+}
@@ -0,0 +1,77 @@
+package com.project.demo.logic.entity.product;
+
+import com.project.demo.logic.entity.category.Category;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The catalog reads are single projection queries: neither the listing nor the by-id read may issue a
+ * category select per product.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProductRepositoryStatementCountTest {
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Long firstProductId;
+
+    @BeforeEach
+    void setUp() {
+        for (int c = 0; c < 5; c++) {
+            Category category = new Category();
+            category.setNombre("Category " + c);
+            entityManager.persist(category);
+            for (int p = 0; p < 10; p++) {
+                Product product = new Product();
+                product.setName("Product " + c + "-" + p);
+                product.setPrice(10.0 + p);
+                product.setStock(p);
+                product.setCategory(category);
+                entityManager.persist(product);
+                if (firstProductId == null) {
+                    firstProductId = product.getId();
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listingIsOneStatement() {
+        List<ProductView> products = productRepository.findAllViews();
+
+        assertThat(products).hasSize(50);
+        assertThat(products).allSatisfy(view -> assertThat(view.category().nombre()).startsWith("Category "));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void byIdReadIsOneStatement() {
+        ProductView product = productRepository.findViewById(firstProductId).orElseThrow();
+
+        assertThat(product.category().nombre()).isEqualTo("Category 0");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
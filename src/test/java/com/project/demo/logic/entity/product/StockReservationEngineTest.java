@@ -0,0 +1,166 @@
+package com.project.demo.logic.entity.product;
+
+import com.project.demo.logic.entity.category.CategorySummaryCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StockReservationEngineTest {
+    private static final long PRODUCT_ID = 1L;
+
+    private static final int INITIAL_STOCK = 2_000;
+
+    private ProductRepository productRepository;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private CategorySummaryCache categorySummaryCache;
+
+    @Captor
+    private ArgumentCaptor<List<Object[]>> flushedRows;
+
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        productRepository = mock(ProductRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        categorySummaryCache = mock(CategorySummaryCache.class);
+        when(productRepository.findStockById(PRODUCT_ID)).thenReturn(Optional.of(INITIAL_STOCK));
+        when(productRepository.findCategoryIdsByIds(any())).thenReturn(List.of(7L));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    private StockReservationEngine engine(long reservationTtl) {
+        // A low inflate threshold lets the counter spread over stripes as soon as threads collide
+        return new StockReservationEngine(productRepository, jdbcTemplate, mock(ProductCatalogCache.class),
+                mock(ProductPriceIndex.class), categorySummaryCache, reservationTtl, 8, 4);
+    }
+
+    @Test
+    void concurrentReservesAndReleasesNeverCreateOrLoseUnits() throws Exception {
+        StockReservationEngine engine = engine(60_000);
+        int threads = 400;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean wentNegative = new AtomicBoolean();
+
+        List<Future<List<StockReservationEngine.Reservation>>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                List<StockReservationEngine.Reservation> held = new ArrayList<>();
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 500; i++) {
+                    if (!held.isEmpty() && random.nextInt(3) == 0) {
+                        StockReservationEngine.Reservation reservation = held.remove(held.size() - 1);
+                        assertThat(engine.release(PRODUCT_ID, reservation.id())).isPresent();
+                    } else {
+                        StockReservationEngine.Result result = engine.reserve(PRODUCT_ID, 1 + random.nextInt(5));
+                        if (result.reservation() != null) {
+                            held.add(result.reservation());
+                        }
+                    }
+                    if (engine.available(PRODUCT_ID).orElseThrow() < 0) {
+                        wentNegative.set(true);
+                    }
+                }
+                return held;
+            }));
+        }
+        start.countDown();
+
+        int outstanding = 0;
+        for (Future<List<StockReservationEngine.Reservation>> result : results) {
+            for (StockReservationEngine.Reservation reservation : result.get(60, TimeUnit.SECONDS)) {
+                outstanding += reservation.quantity();
+            }
+        }
+        executor.shutdown();
+
+        assertThat(wentNegative).isFalse();
+        assertThat(engine.available(PRODUCT_ID).orElseThrow() + outstanding).isEqualTo(INITIAL_STOCK);
+    }
+
+    @Test
+    void expiredReservationsHandTheirUnitsBack() throws Exception {
+        StockReservationEngine engine = engine(0);
+        StockReservationEngine.Result result = engine.reserve(PRODUCT_ID, 30);
+        assertThat(result.available()).isEqualTo(INITIAL_STOCK - 30);
+
+        Thread.sleep(5);
+        engine.expireReservations();
+
+        assertThat(engine.available(PRODUCT_ID)).contains(INITIAL_STOCK);
+        assertThat(engine.release(PRODUCT_ID, result.reservation().id())).isEmpty();
+    }
+
+    @Test
+    void confirmedReservationsNeitherExpireNorComeBackAtShutdown() throws Exception {
+        StockReservationEngine engine = engine(0);
+        StockReservationEngine.Reservation sold = engine.reserve(PRODUCT_ID, 30).reservation();
+        engine.reserve(PRODUCT_ID, 20);
+
+        assertThat(engine.confirm(PRODUCT_ID, sold.id())).contains(sold);
+        assertThat(engine.confirm(PRODUCT_ID, sold.id())).isEmpty();
+        assertThat(engine.release(PRODUCT_ID, sold.id())).isEmpty();
+
+        Thread.sleep(5);
+        engine.expireReservations();
+        assertThat(engine.available(PRODUCT_ID)).contains(INITIAL_STOCK - 30);
+
+        engine.reserve(PRODUCT_ID, 50);
+        engine.shutdown();
+        assertThat(engine.available(PRODUCT_ID)).contains(INITIAL_STOCK - 30);
+    }
+
+    @Test
+    void adjustKeepsReservedUnitsReserved() {
+        StockReservationEngine engine = engine(60_000);
+        engine.reserve(PRODUCT_ID, 1_500);
+
+        // The administrator read 2000 and lowers it to 1800: 200 units go, the 1500 reserved stay reserved
+        assertThat(engine.adjust(PRODUCT_ID, 2_000, 1_800)).contains(300);
+        assertThat(engine.adjust(PRODUCT_ID, 1_800, 1_400)).isEmpty();
+        assertThat(engine.available(PRODUCT_ID)).contains(300);
+    }
+
+    @Test
+    void flushMarksTheProductsCategoriesStale() {
+        StockReservationEngine engine = engine(60_000);
+        engine.reserve(PRODUCT_ID, 1);
+
+        engine.flush();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), flushedRows.capture());
+        assertThat(flushedRows.getValue()).containsExactly(new Object[]{INITIAL_STOCK - 1, PRODUCT_ID});
+        verify(categorySummaryCache).markStale(7L);
+    }
+}
@@ -0,0 +1,96 @@
+package com.project.demo.logic.entity.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+    @Test
+    void pagesFollowTheFullRanking() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "maria lopez");
+        index.put(2, "ana maria");
+        index.put(3, "rosamaria");
+        index.put(4, "mar");
+        index.put(5, "maria");
+
+        assertThat(index.search("maria", 0, 10).ids()).containsExactly(5L, 1L, 2L, 3L);
+        TrigramIndex.Hits second = index.search("maria", 1, 2);
+        assertThat(second.ids()).containsExactly(1L, 2L);
+        assertThat(second.total()).isEqualTo(4);
+    }
+
+    @Test
+    void keepsOnlyTheRequestedPageOfManyMatches() {
+        TrigramIndex index = new TrigramIndex();
+        LongStream.rangeClosed(1, 5_000).forEach(id -> index.put(id, "user" + id + "@example.com"));
+
+        TrigramIndex.Hits hits = index.search("example", 20, 5);
+
+        assertThat(hits.total()).isEqualTo(5_000);
+        // Same rank, so shorter texts come first: ids 1-9, then 10-99 by id
+        assertThat(hits.ids()).containsExactly(21L, 22L, 23L, 24L, 25L);
+    }
+
+    @Test
+    void shortQueriesAndNegativeOffsetsAreHarmless() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "maria");
+
+        assertThat(index.search("ma", 0, 10).total()).isZero();
+        assertThat(index.search("maria", -5, 10).ids()).isEqualTo(List.of(1L));
+        assertThat(index.search("maria", 0, 0).ids()).isEmpty();
+    }
+
+    @Test
+    void fuzzySearchToleratesATypo() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, "hernandez");
+        index.put(2, "fernando");
+
+        assertThat(index.search("hernadez", 0, 10, true).ids()).containsExactly(1L);
+    }
+
+    @Test
+    void everyWordIsFoundFromATypoAmongLongPostingLists() {
+        TrigramIndex index = new TrigramIndex();
+        Random random = new Random(42);
+        String[] words = new String[3_000];
+        for (int i = 0; i < words.length; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 7 + random.nextInt(8);
+            for (int c = 0; c < length; c++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+            index.put(i, words[i]);
+        }
+        // Noise sharing the common trigrams of "ing" and "ion" words makes some posting lists long
+        LongStream.range(10_000, 20_000).forEach(id -> index.put(id, "string nation " + id));
+
+        // A substitution touches at most three trigrams, so words of seven letters or more keep enough of theirs
+
+        for (int i = 0; i < words.length; i++) {
+            char[] typo = words[i].toCharArray();
+            int position = random.nextInt(typo.length);
+            typo[position] = typo[position] == 'z' ? 'y' : (char) (typo[position] + 1);
+
+            assertThat(index.searchSimilar(new String(typo), 0, 50).ids()).as(words[i]).contains((long) i);
+        }
+    }
+
+    @Test
+    void similarSearchPagesAreBounded() {
+        TrigramIndex index = new TrigramIndex();
+        LongStream.rangeClosed(1, 2_000).forEach(id -> index.put(id, "fernandez " + id));
+
+        TrigramIndex.Hits hits = index.searchSimilar("hernandez", 10, 5);
+
+        assertThat(hits.total()).isEqualTo(2_000);
+        assertThat(hits.ids()).containsExactly(11L, 12L, 13L, 14L, 15L);
+    }
+}
@@ -0,0 +1,123 @@
+package com.project.demo.logic.entity.sequence;
+
+import com.project.demo.logic.entity.category.Category;
+import com.project.demo.logic.entity.category.CategoryRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inserts 10k categories and counts what reaches JDBC: with pooled sequences of 50 and a batch size of 50,
+ * that is one sequence call and one insert batch per 50 rows.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+class PooledSequenceBatchingTest {
+    private static final int ROWS = 10_000;
+
+    private static final AtomicInteger sequenceCalls = new AtomicInteger();
+
+    private static final AtomicInteger insertBatches = new AtomicInteger();
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @BeforeEach
+    void resetCounters() {
+        sequenceCalls.set(0);
+        insertBatches.set(0);
+    }
+
+    @Test
+    void insertsAreBatchedAndIdsComeFromPooledSequenceCalls() {
+        List<Category> categories = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Category category = new Category();
+            category.setNombre("Category " + i);
+            categories.add(category);
+        }
+
+        categoryRepository.saveAll(categories);
+        entityManager.flush();
+
+        assertThat(categoryRepository.count()).isEqualTo(ROWS);
+        assertThat(insertBatches.get()).isEqualTo(ROWS / 50);
+        // The pooled optimizer may read the sequence once more while it initializes
+        assertThat(sequenceCalls.get()).isBetween(ROWS / 50, ROWS / 50 + 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target) {
+        InvocationHandler handler = (ignored, method, args) -> {
+            if (method.getName().equals("prepareStatement") && args != null && args[0] instanceof String sql
+                    && sql.toLowerCase(Locale.ROOT).contains("next value for")) {
+                sequenceCalls.incrementAndGet();
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Connection connection) {
+                return proxy(Connection.class, connection);
+            }
+            if (result instanceof PreparedStatement statement && args != null && args[0] instanceof String sql
+                    && sql.toLowerCase(Locale.ROOT).startsWith("insert")) {
+                return proxy(PreparedStatement.class, statement, true);
+            }
+            return result;
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static PreparedStatement proxy(Class<PreparedStatement> type, PreparedStatement target, boolean insert) {
+        InvocationHandler handler = (ignored, method, args) -> {
+            if (insert && method.getName().equals("executeBatch")) {
+                insertBatches.incrementAndGet();
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (PreparedStatement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}